@@ -0,0 +1,32 @@
+package com.paymybuddy.benchmark;
+
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.service.UserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure le chargement de la liste de contacts de l'utilisateur le plus connecté.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectionListBenchmark {
+
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setup(PayMyBuddyState state) {
+        userService = state.getBean(UserService.class);
+    }
+
+    @Benchmark
+    public List<ContactDTO> getContactsOfUser(PayMyBuddyState state) {
+        return userService.getContactsOfUser(state.hotUser.getId());
+    }
+}
@@ -0,0 +1,151 @@
+package com.paymybuddy.benchmark;
+
+import com.paymybuddy.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Test de charge HTTP sur le Tomcat embarqué : tempête de connexions par formulaire (BCrypt + base)
+ * et virements depuis une session déjà connectée.
+ *
+ * <p>
+ * À lancer avec {@code -p virtualThreads=false,true} pour comparer le pool de threads plateforme de Tomcat
+ * aux threads virtuels. Le mode SampleTime donne la distribution des latences (p0.99).
+ * {@code -Djdk.tracePinnedThreads=short} affiche la pile de tout thread virtuel épinglé sur son porteur.
+ * </p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(256)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+@State(Scope.Benchmark)
+public class HttpLoadBenchmark {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+    private static final Pattern SESSION = Pattern.compile("JSESSIONID=([^;]+)");
+
+    private HttpClient client;
+    private String baseUrl;
+
+    /**
+     * Session HTTP d'un thread de charge, connectée avec son propre utilisateur.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        private static final AtomicInteger NEXT_USER = new AtomicInteger(1);
+
+        User user;
+        String cookie;
+
+        @Setup(Level.Trial)
+        public void pickUser(PayMyBuddyState state) {
+            // L'utilisateur 0 porte l'historique des autres benchmarks : chaque thread prend un autre compte
+            user = state.users.get(1 + NEXT_USER.getAndIncrement() % (state.users.size() - 1));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup(PayMyBuddyState state) {
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + state.port;
+    }
+
+    @Setup(Level.Iteration)
+    public void openSession(Session session) throws IOException, InterruptedException {
+        logIn(session);
+    }
+
+    @Benchmark
+    public int login(Session session) throws IOException, InterruptedException {
+        session.cookie = null;
+        return logIn(session);
+    }
+
+    @Benchmark
+    public int transfer(Session session, PayMyBuddyState state) throws IOException, InterruptedException {
+        User receiver = state.users.get(1 + ThreadLocalRandom.current().nextInt(state.users.size() - 1));
+        if (receiver.getId().equals(session.user.getId())) {
+            receiver = state.hotUser;
+        }
+
+        String csrf = csrfToken(send(session, HttpRequest.newBuilder(URI.create(baseUrl + "/transferer")).GET()));
+
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("userReceiverId", receiver.getId().toString());
+        form.put("amount", "0.01");
+        form.put("description", "charge");
+        form.put("_csrf", csrf);
+
+        return expectRedirect(send(session, post("/transferer", form)
+                .header("Idempotency-Key", UUID.randomUUID().toString())), "/transferer");
+    }
+
+    private int logIn(Session session) throws IOException, InterruptedException {
+        String csrf = csrfToken(send(session, HttpRequest.newBuilder(URI.create(baseUrl + "/login")).GET()));
+
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("email", session.user.getEmail());
+        form.put("password", PayMyBuddyState.PASSWORD);
+        form.put("_csrf", csrf);
+
+        return expectRedirect(send(session, post("/login", form)), "/transferer");
+    }
+
+    private HttpRequest.Builder post(String path, Map<String, String> form) {
+        String body = form.entrySet().stream()
+                .map(e -> e.getKey() + "=" + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private HttpResponse<String> send(Session session, HttpRequest.Builder request) throws IOException, InterruptedException {
+        if (session.cookie != null) {
+            request.header("Cookie", "JSESSIONID=" + session.cookie);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+
+        response.headers().allValues("Set-Cookie").stream()
+                .map(SESSION::matcher)
+                .filter(Matcher::find)
+                .findFirst()
+                .ifPresent(matcher -> session.cookie = matcher.group(1));
+        return response;
+    }
+
+    private static String csrfToken(HttpResponse<String> page) {
+        Matcher matcher = CSRF.matcher(page.body());
+        if (page.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Jeton CSRF introuvable (HTTP " + page.statusCode() + ")");
+        }
+        return matcher.group(1);
+    }
+
+    private static int expectRedirect(HttpResponse<String> response, String location) {
+        String target = response.headers().firstValue("Location").orElse("");
+        if (response.statusCode() != 302 || !target.endsWith(location)) {
+            throw new IllegalStateException("Redirection inattendue : HTTP " + response.statusCode() + " vers " + target);
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,38 @@
+package com.paymybuddy.benchmark;
+
+import com.paymybuddy.model.DTO.LedgerPage;
+import com.paymybuddy.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence d'une page de relevé (envoyées + reçues) pendant que la table des transactions grossit.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec \
+ *   -Djmh.args="LedgerBenchmark -p historyLength=1000 -p contactCount=10 -p backgroundTransactions=10000,1000000,3000000"
+ * </pre>
+ * Le relevé de l'utilisateur mesuré ne change pas : la latence doit rester stable quelle que soit
+ * {@code backgroundTransactions}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LedgerBenchmark {
+
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setup(PayMyBuddyState state) {
+        transactionService = state.getBean(TransactionService.class);
+    }
+
+    @Benchmark
+    public LedgerPage firstLedgerPage(PayMyBuddyState state) {
+        return transactionService.getLedgerPage(state.hotUser.getId(), null, 20);
+    }
+}
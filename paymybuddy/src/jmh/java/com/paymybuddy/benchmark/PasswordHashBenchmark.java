@@ -0,0 +1,44 @@
+package com.paymybuddy.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure la vérification d'un mot de passe BCrypt (le coût CPU d'une connexion) pour chaque facteur de coût.
+ *
+ * <p>
+ * Sur un seul thread, le débit obtenu est le nombre de connexions par seconde et par coeur :
+ * il sert à choisir {@code paymybuddy.password-hashing.strength} ou {@code target-latency}.
+ * Aucune base ni contexte Spring : seul le calcul BCrypt est mesuré.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10", "11", "12", "13", "14"})
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
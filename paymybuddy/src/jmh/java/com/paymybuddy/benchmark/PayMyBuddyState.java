@@ -0,0 +1,154 @@
+package com.paymybuddy.benchmark;
+
+import com.paymybuddy.PayMyBuddyApplication;
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.Transaction;
+import com.paymybuddy.model.User;
+import com.paymybuddy.repository.TransactionRepository;
+import com.paymybuddy.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Contexte Spring partagé par les benchmarks, démarré sur une base H2 en mémoire.
+ *
+ * <p>
+ * La base est peuplée avec {@code userCount} utilisateurs. Le premier utilisateur ("hot user")
+ * possède {@code contactCount} contacts et {@code historyLength} transactions envoyées :
+ * c'est sur lui que portent les mesures de lecture.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class PayMyBuddyState {
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Mot de passe de tous les utilisateurs générés, pour les tests de charge HTTP.
+     */
+    public static final String PASSWORD = "benchmark";
+
+    @Param({"1000"})
+    public int userCount;
+
+    @Param({"10", "200"})
+    public int contactCount;
+
+    @Param({"100", "10000"})
+    public int historyLength;
+
+    /**
+     * Transactions échangées entre les autres utilisateurs : font grossir la table
+     * sans changer l'historique de l'utilisateur mesuré.
+     */
+    @Param({"0"})
+    public int backgroundTransactions;
+
+    /**
+     * Exécute les requêtes HTTP et les tâches asynchrones sur des threads virtuels.
+     */
+    @Param({"false"})
+    public boolean virtualThreads;
+
+    public ConfigurableApplicationContext context;
+    public List<User> users;
+    public User hotUser;
+    public int port;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(PayMyBuddyApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driverClassName=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + BATCH_SIZE,
+                        "spring.security.oauth2.client.registration.google.client-id=benchmark",
+                        "spring.security.oauth2.client.registration.google.client-secret=benchmark",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "logging.level.com.paymybuddy=WARN")
+                .run();
+        port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+        seed(context.getBean(UserRepository.class), context.getBean(TransactionRepository.class),
+                context.getBean(PasswordEncoder.class).encode(PASSWORD));
+        seedBackground(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed(UserRepository userRepository, TransactionRepository transactionRepository, String encodedPassword) {
+        List<User> created = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            User user = new User();
+            user.setEmail("bench" + i + "@paymybuddy.com");
+            user.setUsername("bench" + i);
+            user.setProvider(AuthProvider.LOCAL);
+            user.setPassword(encodedPassword);
+            // Solde suffisant pour que le benchmark de virement ne tombe jamais en solde insuffisant
+            user.setAccount(new BigDecimal("1000000000.00"));
+            created.add(user);
+        }
+        users = userRepository.saveAll(created);
+
+        hotUser = users.getFirst();
+        int contacts = Math.min(contactCount, userCount - 1);
+        hotUser.setConnections(new HashSet<>(users.subList(1, contacts + 1)));
+        hotUser = userRepository.save(hotUser);
+
+        List<Transaction> history = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < historyLength; i++) {
+            User receiver = users.get(1 + i % (userCount - 1));
+            history.add(new Transaction("historique " + i, BigDecimal.ONE, hotUser, receiver));
+            if (history.size() == BATCH_SIZE) {
+                transactionRepository.saveAll(history);
+                history.clear();
+            }
+        }
+        transactionRepository.saveAll(history);
+    }
+
+    private void seedBackground(JdbcTemplate jdbcTemplate) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < backgroundTransactions; i++) {
+            // Jamais l'utilisateur mesuré (index 0) : son relevé reste de taille constante
+            int sender = 1 + random.nextInt(userCount - 1);
+            int receiver = 1 + (sender + random.nextInt(userCount - 2)) % (userCount - 1);
+            rows.add(new Object[]{"background", BigDecimal.ONE, users.get(sender).getId(), users.get(receiver).getId(),
+                    Timestamp.valueOf(LocalDateTime.now().minusMinutes(random.nextInt(525_600)))});
+            if (rows.size() == BATCH_SIZE) {
+                insertBackground(jdbcTemplate, rows);
+                rows.clear();
+            }
+        }
+        insertBackground(jdbcTemplate, rows);
+    }
+
+    private static void insertBackground(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (description, amount, sender_id, receiver_id, transaction_date) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+}
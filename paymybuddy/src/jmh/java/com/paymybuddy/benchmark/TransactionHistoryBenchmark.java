@@ -0,0 +1,39 @@
+package com.paymybuddy.benchmark;
+
+import com.paymybuddy.model.DTO.ResponseTransactionDTO;
+import com.paymybuddy.model.DTO.TransactionHistoryPage;
+import com.paymybuddy.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure la construction de l'historique affiché sur /transferer pour l'utilisateur le plus actif.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionHistoryBenchmark {
+
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setup(PayMyBuddyState state) {
+        transactionService = state.getBean(TransactionService.class);
+    }
+
+    @Benchmark
+    public List<ResponseTransactionDTO> getTransactionDTOToShow(PayMyBuddyState state) {
+        return transactionService.getTransactionDTOToShow(
+                transactionService.getTransactionByUserSenderId(state.hotUser.getId()));
+    }
+
+    @Benchmark
+    public TransactionHistoryPage getTransactionHistoryPage(PayMyBuddyState state) {
+        return transactionService.getTransactionHistoryPage(state.hotUser.getId(), null, 20);
+    }
+}
@@ -0,0 +1,33 @@
+package com.paymybuddy.benchmark;
+
+import com.paymybuddy.model.DTO.TransactionPageView;
+import com.paymybuddy.service.TransactionPageService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure la lecture complète de la page /transferer (solde, contacts, première page d'historique).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionPageBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private TransactionPageService transactionPageService;
+
+    @Setup(Level.Trial)
+    public void setup(PayMyBuddyState state) {
+        transactionPageService = state.getBean(TransactionPageService.class);
+    }
+
+    @Benchmark
+    public TransactionPageView getTransactionPage(PayMyBuddyState state) {
+        return transactionPageService.getTransactionPage(state.hotUser.getId(), null, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,46 @@
+package com.paymybuddy.benchmark;
+
+import com.paymybuddy.model.DTO.TransactionRequest;
+import com.paymybuddy.model.User;
+import com.paymybuddy.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure {@link TransactionService#saveNewTransaction} entre deux utilisateurs tirés au hasard.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransferBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setup(PayMyBuddyState state) {
+        transactionService = state.getBean(TransactionService.class);
+    }
+
+    @Benchmark
+    public void saveNewTransaction(PayMyBuddyState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int senderIndex = random.nextInt(state.users.size());
+        int receiverIndex = (senderIndex + 1 + random.nextInt(state.users.size() - 1)) % state.users.size();
+
+        User sender = state.users.get(senderIndex);
+        TransactionRequest request = new TransactionRequest();
+        request.setUserReceiverId(state.users.get(receiverIndex).getId());
+        request.setAmount(AMOUNT);
+        request.setDescription("benchmark");
+
+        transactionService.saveNewTransaction(request, sender);
+    }
+}
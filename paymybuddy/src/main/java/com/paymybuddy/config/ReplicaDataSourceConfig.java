@@ -0,0 +1,80 @@
+package com.paymybuddy.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration d'un réplica en lecture, activée uniquement si {@code paymybuddy.datasource.replica.url} est défini.
+ *
+ * <p>
+ * Les transactions en lecture seule ({@code @Transactional(readOnly = true)}) sont envoyées vers le réplica,
+ * toutes les autres vers la base principale ({@code spring.datasource.*}).
+ * La connexion réelle n'est obtenue qu'à la première requête SQL, une fois le mode lecture seule connu.
+ * </p>
+ *
+ * <p>
+ * Le réplica peut avoir un léger retard sur la base principale : un écran relu juste après une écriture
+ * peut donc afficher l'état précédent pendant ce délai. Hors de toute transaction, les méthodes CRUD héritées
+ * de {@code SimpleJpaRepository} ({@code findById}, {@code findAll}, {@code count}...) ouvrent leur propre
+ * transaction en lecture seule et partent vers le réplica ; les méthodes de requête déclarées sur les interfaces
+ * ({@code findByEmail}, {@code @Query}) n'en ouvrent pas et partent vers la base principale, sauf appelées depuis
+ * une transaction en lecture seule. Les lectures qui doivent voir la dernière écriture (authentification,
+ * création de compte OIDC, chargement du cache des listes de contacts) s'exécutent explicitement dans une
+ * transaction en lecture-écriture, sur la base principale.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "paymybuddy.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("paymybuddy.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("paymybuddy.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties replicaDataSourceProperties) {
+        HikariDataSource dataSource = replicaDataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * DataSource utilisée par JPA : base principale par défaut, réplica pour les connexions passées en lecture seule.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -1,18 +1,35 @@
 package com.paymybuddy.config;
 
 import com.paymybuddy.repository.UserRepository;
+import com.paymybuddy.security.BCryptStrengthCalibrator;
+import com.paymybuddy.security.BoundedPasswordEncoder;
+import com.paymybuddy.security.CustomLoginFailureHandler;
 import com.paymybuddy.security.CustomOAuth2FailureHandler;
 import com.paymybuddy.security.CustomOidcUserService;
 import com.paymybuddy.security.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
 
 /**
  * Configuration de Spring Security pour l'application PayMyBuddy.
@@ -22,13 +39,16 @@ import org.springframework.security.web.SecurityFilterChain;
  * <ul>
  *     <li>la gestion de l'authentification par formulaire et OAuth2 (Google, etc.)</li>
  *     <li>les pages publiques et les restrictions d'accès aux ressources</li>
- *     <li>le chiffrement des mots de passe avec BCrypt</li>
+ *     <li>l'accès aux endpoints Actuator, réservé au rôle ADMIN</li>
+ *     <li>le chiffrement des mots de passe avec BCrypt, sur un pool de threads borné</li>
  * </ul>
  * </p>
  */
 @Configuration
 @EnableWebSecurity
 public class SpringSecurityConfig {
+    private static final String BCRYPT_ID = "bcrypt";
+
     private final UserDetailsServiceImpl userDetailsService;
     private final UserRepository userRepository;
 
@@ -37,6 +57,36 @@ public class SpringSecurityConfig {
         this.userRepository = userRepository;
     }
 
+    /**
+     * Configure la chaîne de filtres des endpoints Actuator.
+     *
+     * <p>
+     * Seul {@code /actuator/health} est public. Les autres endpoints (dont {@code /actuator/prometheus})
+     * exigent le rôle ADMIN, accordé aux emails listés dans {@code paymybuddy.security.admin-emails},
+     * via une authentification HTTP Basic sans session adaptée aux collecteurs de métriques.
+     * </p>
+     *
+     * @param http HttpSecurity pour configurer la sécurité web
+     * @return la chaîne de filtres des endpoints Actuator
+     * @throws Exception si une erreur survient lors de la configuration
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .anyRequest().hasRole("ADMIN")
+                )
+                .userDetailsService(userDetailsService)
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(csrf -> csrf.disable());
+
+        return http.build();
+    }
+
     /**
      * Configure la chaîne de filtres de sécurité HTTP.
      *
@@ -60,6 +110,7 @@ public class SpringSecurityConfig {
                 .formLogin(form -> form
                         .loginPage("/login")
                         .usernameParameter("email")
+                        .failureHandler(new CustomLoginFailureHandler())
                         .defaultSuccessUrl("/transferer", true)
                         .permitAll()
                 )
@@ -79,34 +130,76 @@ public class SpringSecurityConfig {
     /**
      * Bean pour le service OIDC personnalisé.
      *
+     * @param meterRegistry       le registre où publier la durée des connexions OIDC
+     * @param transactionTemplate les transactions en lecture-écriture où l'utilisateur est recherché ou créé
      * @return un objet CustomOidcUserService
      */
     @Bean
-    public CustomOidcUserService customOAuth2UserService() {
-        return new CustomOidcUserService(userRepository);
+    public CustomOidcUserService customOAuth2UserService(MeterRegistry meterRegistry, TransactionTemplate transactionTemplate) {
+        return new CustomOidcUserService(userRepository, meterRegistry, transactionTemplate);
     }
 
     /**
      * Configure l'AuthenticationManager avec le UserDetailsService et le PasswordEncoder.
      *
      * @param http HttpSecurity utilisé pour récupérer l'AuthenticationManagerBuilder
+     * @param passwordEncoder l'encodeur utilisé pour vérifier les mots de passe
      * @return l'AuthenticationManager configuré
      * @throws Exception si une erreur survient lors de la configuration
      */
     @Bean
-    public AuthenticationManager authManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authManager(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         AuthenticationManagerBuilder auth = http.getSharedObject(AuthenticationManagerBuilder.class);
-        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
         return auth.build();
     }
 
     /**
      * Bean pour le chiffrement des mots de passe.
      *
+     * <p>
+     * Les hashes sont préfixés par l'identifiant de l'encodeur ({@code {bcrypt}...}) ; les hashes BCrypt
+     * sans préfixe, antérieurs, restent vérifiables. Le coût BCrypt est fixé par
+     * {@code paymybuddy.password-hashing.strength}, obligatoire avec le profil {@code prod} : tous les noeuds
+     * doivent utiliser le même coût. Hors production, il peut valoir 0 pour être calibré au démarrage
+     * sur {@code target-latency}, sans descendre sous le coût des hashes déjà stockés.
+     * Un hash ancien ou moins coûteux est ré-encodé à la connexion suivante
+     * (voir {@link UserDetailsServiceImpl#updatePassword}).
+     * </p>
+     *
+     * <p>
+     * Le calcul s'exécute sur un pool dédié et borné (voir {@link BoundedPasswordEncoder}) :
+     * une vague de connexions ne peut pas occuper tous les threads de requête.
+     * </p>
+     *
+     * @param strength      coût BCrypt, 0 pour le calibrer au démarrage (hors production)
+     * @param targetLatency durée visée pour une vérification de mot de passe lors de la calibration
+     * @param threads       nombre de calculs simultanés, 0 pour le nombre de processeurs
+     * @param queueCapacity nombre de calculs en attente au-delà duquel les requêtes sont rejetées (503)
+     * @param timeout       délai maximal d'attente d'un calcul
+     * @param environment   profils actifs, pour interdire la calibration en production
      * @return un PasswordEncoder utilisant BCrypt
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${paymybuddy.password-hashing.strength:0}") int strength,
+                                                  @Value("${paymybuddy.password-hashing.target-latency:100ms}") Duration targetLatency,
+                                                  @Value("${paymybuddy.password-hashing.threads:0}") int threads,
+                                                  @Value("${paymybuddy.password-hashing.queue-capacity:64}") int queueCapacity,
+                                                  @Value("${paymybuddy.password-hashing.timeout:5s}") Duration timeout,
+                                                  Environment environment) {
+        if (strength <= 0 && environment.acceptsProfiles(Profiles.of("prod"))) {
+            throw new IllegalStateException("paymybuddy.password-hashing.strength doit être fixé en production");
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength > 0 ? strength : BCryptStrengthCalibrator.calibrate(targetLatency, storedBcryptStrength()));
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(encoder, threads, queueCapacity, timeout);
+    }
+
+    private int storedBcryptStrength() {
+        String cost = userRepository.findHighestStoredBcryptCost();
+        return cost == null ? 0 : Integer.parseInt(cost);
     }
 }
@@ -4,14 +4,19 @@ import com.paymybuddy.service.SecurityUtils;
 import com.paymybuddy.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.List;
+
 @Slf4j
 @Controller
 @RequestMapping("/ajouter-relation")
 public class AddRelationController {
 
+    static final int SUGGESTION_LIMIT = 5;
+
     private final UserService userService;
 
     public AddRelationController(UserService userService) {
@@ -19,7 +24,14 @@ public class AddRelationController {
     }
 
     @GetMapping
-    public String showAddRelationPage() {
+    public String showAddRelationPage(Model model) {
+        try {
+            model.addAttribute("suggestions", userService.getContactSuggestions(SecurityUtils.getConnectedUserId(), SUGGESTION_LIMIT));
+        } catch (Exception ex) {
+            // Les suggestions sont un bonus : la page d'ajout reste utilisable sans elles
+            log.warn("Impossible de calculer les suggestions de contacts", ex);
+            model.addAttribute("suggestions", List.of());
+        }
         return "ajouter-relation";
     }
 
@@ -41,4 +53,24 @@ public class AddRelationController {
         model.addFlashAttribute("success", "Utilisateur ajouté avec succès !");
         return "redirect:/ajouter-relation";
     }
+
+    /**
+     * Ajoute un utilisateur proposé dans les suggestions, par son id : son email n'est jamais envoyé à la page.
+     */
+    @PostMapping("/suggestion")
+    public String processAddSuggestedRelation(@RequestParam Long id, RedirectAttributes model) {
+        log.info("Ajout d'une relation suggérée");
+
+        try {
+            User userConnected = SecurityUtils.getConnectedUser();
+            userService.addSuggestedConnexion(userConnected, id);
+        } catch (Exception ex) {
+            log.error("Erreur lors de l'ajout de la relation suggérée", ex);
+            model.addFlashAttribute("error", ex.getMessage());
+            return "redirect:/ajouter-relation";
+        }
+
+        model.addFlashAttribute("success", "Utilisateur ajouté avec succès !");
+        return "redirect:/ajouter-relation";
+    }
 }
@@ -0,0 +1,78 @@
+package com.paymybuddy.controller;
+
+import com.paymybuddy.model.DTO.LedgerPage;
+import com.paymybuddy.service.SecurityUtils;
+import com.paymybuddy.service.TransactionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Controller
+@RequestMapping("/releve")
+public class LedgerController {
+
+    static final int LEDGER_PAGE_SIZE = 20;
+    static final int DEFAULT_PERIOD_DAYS = 30;
+    static final int MAX_PERIOD_DAYS = 366;
+
+    private final TransactionService transactionService;
+
+    public LedgerController(TransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * Affiche le relevé paginé, ou le relevé d'une période lorsque {@code from} et/ou {@code to} sont fournis.
+     * Les deux bornes sont des jours inclus ; une borne absente vaut aujourd'hui (fin) ou 30 jours avant la fin (début).
+     * Une période est ramenée à {@value #MAX_PERIOD_DAYS} jours au plus, et paginée par le curseur
+     * ({@code beforeDate}, {@code before}).
+     */
+    @GetMapping
+    public String showLedgerPage(@RequestParam(name = "before", required = false) Long before,
+                                 @RequestParam(name = "beforeDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeDate,
+                                 @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                 @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                 Model model) {
+        final Long connectedUser = SecurityUtils.getConnectedUserId();
+        LocalDate today = LocalDate.now();
+        model.addAttribute("last30DaysFrom", today.minusDays(DEFAULT_PERIOD_DAYS));
+
+        try {
+            if (from != null || to != null) {
+                LocalDate end = to != null ? to : today;
+                LocalDate start = from != null ? from : end.minusDays(DEFAULT_PERIOD_DAYS);
+                if (start.isBefore(end.minusDays(MAX_PERIOD_DAYS))) {
+                    start = end.minusDays(MAX_PERIOD_DAYS);
+                }
+
+                LedgerPage ledger = transactionService.getLedgerBetween(connectedUser,
+                        start.atStartOfDay(), end.plusDays(1).atStartOfDay(),
+                        before == null ? null : beforeDate, beforeDate == null ? null : before, LEDGER_PAGE_SIZE);
+
+                model.addAttribute("from", start);
+                model.addAttribute("to", end);
+                model.addAttribute("entries", ledger.getEntries());
+                model.addAttribute("nextCursor", ledger.getNextCursor());
+                model.addAttribute("nextCursorDate", ledger.getNextCursorDate());
+            } else {
+                LedgerPage ledger = transactionService.getLedgerPage(connectedUser, before, LEDGER_PAGE_SIZE);
+
+                model.addAttribute("entries", ledger.getEntries());
+                model.addAttribute("nextCursor", ledger.getNextCursor());
+            }
+        } catch (Exception ex) {
+            log.error("Une erreur est survenu lors de la récupération du relevé", ex);
+            model.addAttribute("error", ex.getMessage());
+        }
+
+        return "releve";
+    }
+}
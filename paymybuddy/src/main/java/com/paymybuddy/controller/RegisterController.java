@@ -1,5 +1,6 @@
 package com.paymybuddy.controller;
 
+import com.paymybuddy.exception.PasswordHashingUnavailableException;
 import com.paymybuddy.model.DTO.RegisterRequest;
 import com.paymybuddy.service.SecurityUtils;
 import com.paymybuddy.service.UserService;
@@ -43,6 +44,9 @@ public class RegisterController {
         }
         try {
             userService.registerUser(request);
+        } catch (PasswordHashingUnavailableException ex) {
+            // Saturation : 503 via GlobalExceptionHandler plutôt qu'un message de formulaire
+            throw ex;
         } catch (Exception ex) {
             model.addFlashAttribute("error", ex.getMessage());
             return "redirect:/register";
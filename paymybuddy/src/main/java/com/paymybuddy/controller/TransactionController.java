@@ -1,17 +1,20 @@
 package com.paymybuddy.controller;
 
+import com.paymybuddy.model.DTO.TransactionHistoryPage;
+import com.paymybuddy.model.DTO.TransactionPageView;
 import com.paymybuddy.model.DTO.TransactionRequest;
-import com.paymybuddy.model.Transaction;
 import com.paymybuddy.model.User;
 import com.paymybuddy.service.SecurityUtils;
+import com.paymybuddy.service.TransactionPageService;
 import com.paymybuddy.service.TransactionService;
-import com.paymybuddy.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
@@ -20,19 +23,23 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import java.beans.PropertyEditorSupport;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.UUID;
 
 @Slf4j
 @Controller
 @RequestMapping("/transferer")
 public class TransactionController {
 
+    static final int HISTORY_PAGE_SIZE = 20;
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final TransactionService transactionService;
-    private final UserService userService;
+    private final TransactionPageService transactionPageService;
 
     @Autowired
-    public TransactionController(TransactionService transactionService, UserService userService) {
+    public TransactionController(TransactionService transactionService, TransactionPageService transactionPageService) {
         this.transactionService = transactionService;
-        this.userService = userService;
+        this.transactionPageService = transactionPageService;
     }
 
     @InitBinder
@@ -49,20 +56,41 @@ public class TransactionController {
         });
     }
 
+    /**
+     * Formulaire de virement lié par {@link #processTransaction}. Une clé reçue dans l'en-tête
+     * {@value #IDEMPOTENCY_KEY_HEADER} y est copiée avant la liaison et la validation : elle est soumise
+     * aux mêmes contraintes que le champ du formulaire, qui est alors ignoré (voir {@link #initRequestBinder}).
+     */
+    @ModelAttribute("request")
+    public TransactionRequest transactionRequest(@RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKeyHeader) {
+        TransactionRequest request = new TransactionRequest();
+        if (StringUtils.hasText(idempotencyKeyHeader)) {
+            request.setIdempotencyKey(idempotencyKeyHeader.strip());
+        }
+        return request;
+    }
+
+    @InitBinder("request")
+    public void initRequestBinder(WebDataBinder binder, HttpServletRequest request) {
+        // L'en-tête est prioritaire sur le champ caché du formulaire (@RequestHeader n'est pas résolu pour @InitBinder)
+        if (StringUtils.hasText(request.getHeader(IDEMPOTENCY_KEY_HEADER))) {
+            binder.setDisallowedFields("idempotencyKey");
+        }
+    }
+
     @GetMapping
-    public String showTransactionPage(Model model, RedirectAttributes redirectAttributes) {
+    public String showTransactionPage(@RequestParam(name = "before", required = false) Long before,
+                                      Model model, RedirectAttributes redirectAttributes) {
         TransactionRequest request = new TransactionRequest();
         request.setUserReceiverId(0L);
+        // Une clé par affichage du formulaire : un double clic ou un renvoi du navigateur réutilise la même
+        request.setIdempotencyKey(UUID.randomUUID().toString());
 
         final Long connectedUser = SecurityUtils.getConnectedUserId();
-        List<User> connections;
-        List<Transaction> transactions;
-        BigDecimal solde;
+        TransactionPageView page;
 
         try {
-            connections = userService.getListOfConnectionOfCurrentUserById(connectedUser);
-            transactions = transactionService.getTransactionByUserSenderId(connectedUser);
-            solde = userService.getAccountById(connectedUser);
+            page = transactionPageService.getTransactionPage(connectedUser, before, HISTORY_PAGE_SIZE);
         } catch (Exception ex) {
             log.error("Une erreur est survenu lors de la récupération de l'user courant ou de ses transactions", ex);
             redirectAttributes.addFlashAttribute("error", ex.getMessage());
@@ -70,13 +98,32 @@ public class TransactionController {
         }
 
         model.addAttribute("request", request);
-        model.addAttribute("solde", solde);
-        model.addAttribute("contacts", connections);
-        model.addAttribute("transactions", transactionService.getTransactionDTOToShow(transactions));
+        model.addAttribute("solde", page.getSolde());
+        model.addAttribute("contacts", page.getContacts());
+        model.addAttribute("transactions", page.getHistory().getTransactions());
+        model.addAttribute("nextCursor", page.getHistory().getNextCursor());
 
         return "transferer";
     }
 
+    /**
+     * Renvoie uniquement les lignes de la page suivante de l'historique, pour le bouton "Voir plus".
+     */
+    @GetMapping("/historique")
+    public String showTransactionHistoryRows(@RequestParam(name = "before", required = false) Long before, Model model) {
+        TransactionHistoryPage history = transactionService.getTransactionHistoryPage(SecurityUtils.getConnectedUserId(), before, HISTORY_PAGE_SIZE);
+
+        model.addAttribute("transactions", history.getTransactions());
+        model.addAttribute("nextCursor", history.getNextCursor());
+
+        return "transferer :: history-rows";
+    }
+
+    /**
+     * Enregistre un virement. La clé d'idempotence vient du champ caché du formulaire ou, pour les clients
+     * qui rejouent eux-mêmes leurs requêtes, de l'en-tête {@value #IDEMPOTENCY_KEY_HEADER}, prioritaire.
+     * Un renvoi avec une clé déjà utilisée aboutit au même résultat que le premier envoi, sans nouveau débit.
+     */
     @PostMapping
     public String processTransaction(
             @ModelAttribute("request") @Valid TransactionRequest request,
@@ -85,6 +132,10 @@ public class TransactionController {
 
         User connectedUser = SecurityUtils.getConnectedUser();
 
+        if (request.getIdempotencyKey() != null && request.getIdempotencyKey().isBlank()) {
+            request.setIdempotencyKey(null);
+        }
+
         if (bindingResult.hasErrors()) {
             List<String> errors = bindingResult.getAllErrors().stream()
                     .map(DefaultMessageSourceResolvable::getDefaultMessage)
@@ -1,5 +1,6 @@
 package com.paymybuddy.controller;
 
+import com.paymybuddy.exception.PasswordHashingUnavailableException;
 import com.paymybuddy.model.DTO.UpdateUserRequest;
 import com.paymybuddy.model.User;
 import com.paymybuddy.service.SecurityUtils;
@@ -53,6 +54,9 @@ public class UpdateProfilController {
 
         try {
             userService.updateUser(request, connectedUser);
+        } catch (PasswordHashingUnavailableException ex) {
+            // Saturation : 503 via GlobalExceptionHandler plutôt qu'un message de formulaire
+            throw ex;
         } catch (Exception ex) {
             log.error("Erreur lors de la sauvegarde du profil", ex);
             model.addFlashAttribute("error", ex.getMessage());
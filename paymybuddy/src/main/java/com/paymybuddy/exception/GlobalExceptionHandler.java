@@ -1,8 +1,13 @@
 package com.paymybuddy.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.BindException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -36,4 +41,24 @@ public class GlobalExceptionHandler {
         log.error("Validation échouée : {}", exception.getMessage());
         model.addFlashAttribute("error", "Les données du formulaire ne sont pas valides.");
     }
+
+    /**
+     * Aucune connexion obtenue dans le délai du pool (ou base injoignable) : réponse 503 immédiate,
+     * que le client peut réessayer, plutôt qu'une page d'erreur générique.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<String> handleDatabaseUnavailable(NestedRuntimeException exception) {
+        log.warn("Base de données indisponible : {}", exception.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Le service est momentanément indisponible, veuillez réessayer.");
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<String> handlePasswordHashingUnavailable(PasswordHashingUnavailableException exception) {
+        log.warn("Requête rejetée : {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exception.getMessage());
+    }
 }
@@ -0,0 +1,14 @@
+package com.paymybuddy.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Levée quand le pool de hachage des mots de passe est saturé : la requête doit être rejouée plus tard (HTTP 503).
+ * Hérite d'AuthenticationServiceException pour traverser la chaîne d'authentification Spring Security.
+ */
+public class PasswordHashingUnavailableException extends AuthenticationServiceException {
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -4,7 +4,21 @@ import lombok.Getter;
 @Getter
 public class TransactionBusinessException extends RuntimeException {
 
-    public TransactionBusinessException(String message) {
+    /**
+     * Motif du refus, utilisé pour classer les virements dans les métriques.
+     */
+    public enum Reason {
+        INVALID_AMOUNT,
+        INVALID_RECEIVER,
+        INSUFFICIENT_FUNDS,
+        UNAVAILABLE,
+        IDEMPOTENCY_CONFLICT
+    }
+
+    private final Reason reason;
+
+    public TransactionBusinessException(Reason reason, String message) {
         super(message);
+        this.reason = reason;
     }
 }
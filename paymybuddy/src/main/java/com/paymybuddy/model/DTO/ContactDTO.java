@@ -0,0 +1,18 @@
+package com.paymybuddy.model.DTO;
+
+import lombok.Data;
+
+/**
+ * Contact de l'utilisateur tel qu'affiché dans la liste des destinataires : uniquement son id et son nom.
+ */
+@Data
+public class ContactDTO {
+
+    private Long id;
+    private String username;
+
+    public ContactDTO(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+}
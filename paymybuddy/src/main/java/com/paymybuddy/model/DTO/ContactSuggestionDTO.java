@@ -0,0 +1,22 @@
+package com.paymybuddy.model.DTO;
+
+import lombok.Data;
+
+/**
+ * Utilisateur suggéré comme nouveau contact : un contact de mes contacts que je n'ai pas encore ajouté.
+ * {@code mutualContacts} est le nombre de mes contacts qui l'ont dans leurs contacts.
+ * L'email n'est pas exposé : la suggestion est ajoutée par son id (voir {@code UserService#addSuggestedConnexion}).
+ */
+@Data
+public class ContactSuggestionDTO {
+
+    private Long id;
+    private String username;
+    private long mutualContacts;
+
+    public ContactSuggestionDTO(Long id, String username, long mutualContacts) {
+        this.id = id;
+        this.username = username;
+        this.mutualContacts = mutualContacts;
+    }
+}
@@ -0,0 +1,34 @@
+package com.paymybuddy.model.DTO;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Une ligne du relevé : transaction envoyée ou reçue, vue depuis l'utilisateur connecté.
+ */
+@Data
+public class LedgerEntryDTO {
+
+    private Long id;
+    private String counterpartName;
+    private String description;
+    private BigDecimal amount;
+    private boolean received;
+    private LocalDateTime transactionDate;
+
+    public LedgerEntryDTO(Long id, String counterpartName, String description, BigDecimal amount, boolean received) {
+        this.id = id;
+        this.counterpartName = counterpartName;
+        this.description = description;
+        this.amount = amount;
+        this.received = received;
+    }
+
+    public LedgerEntryDTO(Long id, String counterpartName, String description, BigDecimal amount, boolean received,
+                          LocalDateTime transactionDate) {
+        this(id, counterpartName, description, amount, received);
+        this.transactionDate = transactionDate;
+    }
+}
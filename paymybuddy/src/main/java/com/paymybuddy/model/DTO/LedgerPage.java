@@ -0,0 +1,33 @@
+package com.paymybuddy.model.DTO;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Une page du relevé (transactions envoyées et reçues), les plus récentes d'abord.
+ * {@code nextCursor} est l'id à passer pour obtenir la page suivante, ou null s'il n'y en a plus.
+ * Pour un relevé sur une période, trié par date, {@code nextCursorDate} complète le curseur (date, id).
+ */
+@Data
+public class LedgerPage {
+
+    private List<LedgerEntryDTO> entries;
+    private Long nextCursor;
+    private LocalDateTime nextCursorDate;
+
+    public LedgerPage(List<LedgerEntryDTO> entries, Long nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public LedgerPage(List<LedgerEntryDTO> entries, Long nextCursor, LocalDateTime nextCursorDate) {
+        this(entries, nextCursor);
+        this.nextCursorDate = nextCursorDate;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.paymybuddy.model.DTO;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Virement déjà enregistré pour une clé d'idempotence : seuls le destinataire et le montant sont relus,
+ * pour vérifier qu'un renvoi correspond bien au premier envoi.
+ */
+@Data
+public class RecordedTransferDTO {
+
+    private Long receiverId;
+    private BigDecimal amount;
+
+    public RecordedTransferDTO(Long receiverId, BigDecimal amount) {
+        this.receiverId = receiverId;
+        this.amount = amount;
+    }
+}
@@ -1,12 +1,17 @@
 package com.paymybuddy.model.DTO;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 import java.math.BigDecimal;
 
 @Data
 public class ResponseTransactionDTO {
 
+    // Sert uniquement de curseur de pagination, ne fait pas partie de la ligne affichée
+    @EqualsAndHashCode.Exclude
+    private Long id;
+
     private String receiverName;
     private String description;
     private BigDecimal amount;
@@ -16,4 +21,9 @@ public class ResponseTransactionDTO {
         this.description = description;
         this.amount = amount;
     }
+
+    public ResponseTransactionDTO(Long id, String receiverName, String description, BigDecimal amount) {
+        this(receiverName, description, amount);
+        this.id = id;
+    }
 }
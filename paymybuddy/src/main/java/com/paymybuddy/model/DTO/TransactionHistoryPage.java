@@ -0,0 +1,25 @@
+package com.paymybuddy.model.DTO;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Une page de l'historique des transactions, les plus récentes d'abord.
+ * {@code nextCursor} est l'id à passer pour obtenir la page suivante, ou null s'il n'y en a plus.
+ */
+@Data
+public class TransactionHistoryPage {
+
+    private List<ResponseTransactionDTO> transactions;
+    private Long nextCursor;
+
+    public TransactionHistoryPage(List<ResponseTransactionDTO> transactions, Long nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
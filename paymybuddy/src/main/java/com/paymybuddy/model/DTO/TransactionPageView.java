@@ -0,0 +1,23 @@
+package com.paymybuddy.model.DTO;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Données affichées sur la page /transferer : solde, contacts et première page de l'historique.
+ */
+@Data
+public class TransactionPageView {
+
+    private BigDecimal solde;
+    private List<ContactDTO> contacts;
+    private TransactionHistoryPage history;
+
+    public TransactionPageView(BigDecimal solde, List<ContactDTO> contacts, TransactionHistoryPage history) {
+        this.solde = solde;
+        this.contacts = contacts;
+        this.history = history;
+    }
+}
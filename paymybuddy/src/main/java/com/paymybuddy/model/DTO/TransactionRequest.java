@@ -3,6 +3,7 @@ package com.paymybuddy.model.DTO;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -18,4 +19,8 @@ public class TransactionRequest {
     @DecimalMin(value = "0.01", message = "Le montant doit être positif")
     @Digits(integer = 10, fraction = 2, message = "Le montant dois contenir au maximum 2 décimales")
     private BigDecimal amount;
+
+    // Générée à l'affichage du formulaire ou fournie par l'en-tête Idempotency-Key : un renvoi du même formulaire ne débite pas deux fois
+    @Size(max = 64, message = "La clé d'idempotence ne doit pas dépasser 64 caractères")
+    private String idempotencyKey;
 }
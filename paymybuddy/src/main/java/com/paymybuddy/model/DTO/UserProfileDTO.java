@@ -0,0 +1,24 @@
+package com.paymybuddy.model.DTO;
+
+import com.paymybuddy.model.AuthProvider;
+import lombok.Data;
+
+/**
+ * Identité d'un utilisateur, sans aucune donnée sensible ou monétaire (ni mot de passe, ni solde).
+ * C'est la seule forme d'utilisateur conservée dans le cache des profils.
+ */
+@Data
+public class UserProfileDTO {
+
+    private Long id;
+    private String username;
+    private String email;
+    private AuthProvider provider;
+
+    public UserProfileDTO(Long id, String username, String email, AuthProvider provider) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.provider = provider;
+    }
+}
@@ -2,13 +2,26 @@ package com.paymybuddy.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
-@Data
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_sender_id_id", columnList = "sender_id, id"),
+        @Index(name = "idx_transactions_receiver_id_id", columnList = "receiver_id, id"),
+        @Index(name = "idx_transactions_sender_id_date", columnList = "sender_id, transaction_date"),
+        @Index(name = "idx_transactions_receiver_id_date", columnList = "receiver_id, transaction_date")
+}, uniqueConstraints = {
+        // Une clé d'idempotence ne peut servir qu'à un seul virement par expéditeur
+        @UniqueConstraint(name = "uk_transactions_sender_id_idempotency_key", columnNames = {"sender_id", "idempotency_key"})
+})
+@Getter
+@Setter
+@ToString(exclude = {"sender", "receiver"})
 public class Transaction {
 
     public Transaction() {
@@ -38,4 +51,41 @@ public class Transaction {
     @ManyToOne
     @JoinColumn(name = "receiver_id")
     private User receiver;
+
+    @Column(name = "transaction_date", nullable = false, updatable = false)
+    private LocalDateTime transactionDate;
+
+    @Column(name = "idempotency_key", length = 64, updatable = false)
+    private String idempotencyKey;
+
+    @PrePersist
+    void initTransactionDate() {
+        if (transactionDate == null) {
+            transactionDate = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Deux transactions sont égales si elles ont le même id en base. Une transaction non persistée n'est égale qu'à elle-même.
+     * Ne lit que l'id : ni l'émetteur ni le destinataire ne sont comparés.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Transaction other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    /**
+     * Basé sur l'id, donc stable dès que la transaction est persistée :
+     * ne pas placer une transaction non persistée dans un HashSet avant de la sauvegarder.
+     */
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : System.identityHashCode(this);
+    }
 }
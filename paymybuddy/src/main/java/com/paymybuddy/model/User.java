@@ -2,17 +2,23 @@ package com.paymybuddy.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
-@Data
+@Getter
+@Setter
 @Table(name = "users")
 @ToString(exclude = "connections")
 public class User {
+    // Longueur de la colonne username du schéma MySQL (varchar(50)), utilisée pour borner les noms générés
+    public static final int USERNAME_LENGTH = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -22,7 +28,7 @@ public class User {
     @Column(name = "auth_provider")
     private AuthProvider provider = AuthProvider.LOCAL;
 
-    @Column(unique = true, nullable = false)
+    @Column(unique = true, nullable = false, length = USERNAME_LENGTH)
     private String username;
 
     private String password;
@@ -37,6 +43,31 @@ public class User {
     @ManyToMany
     @JoinTable(name = "user_connections",
             joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "connection_id"))
-    private List<User> connections;
+            inverseJoinColumns = @JoinColumn(name = "connection_id"),
+            indexes = @Index(name = "idx_user_connections_connection_id", columnList = "connection_id"))
+    private Set<User> connections = new HashSet<>();
+
+    /**
+     * Deux utilisateurs sont égaux s'ils ont le même id en base. Un utilisateur non persisté n'est égal qu'à lui-même.
+     * Ne lit que l'id : aucune association n'est chargée, y compris à travers un proxy Hibernate.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof User other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+
+    /**
+     * Basé sur l'id, donc stable dès que l'utilisateur est persisté :
+     * ne pas placer un utilisateur non persisté dans un HashSet avant de le sauvegarder.
+     */
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : System.identityHashCode(this);
+    }
 }
@@ -1,10 +1,81 @@
 package com.paymybuddy.repository;
 
+import com.paymybuddy.model.DTO.LedgerEntryDTO;
+import com.paymybuddy.model.DTO.RecordedTransferDTO;
+import com.paymybuddy.model.DTO.ResponseTransactionDTO;
 import com.paymybuddy.model.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     List<Transaction> findBySender_Id(Long senderId);
+
+    // Virement déjà enregistré pour cette clé d'idempotence : lu via la contrainte unique (sender_id, idempotency_key),
+    // sans charger l'entité ni son destinataire
+    @Query("SELECT new com.paymybuddy.model.DTO.RecordedTransferDTO(t.receiver.id, t.amount) " +
+            "FROM Transaction t " +
+            "WHERE t.sender.id = :senderId AND t.idempotencyKey = :idempotencyKey")
+    Optional<RecordedTransferDTO> findRecordedTransfer(@Param("senderId") Long senderId,
+                                                       @Param("idempotencyKey") String idempotencyKey);
+
+    // Historique projeté directement dans le DTO : une seule jointure sur le destinataire, aucune entité chargée.
+    // Pagination par clé (keyset) : les plus récentes d'abord, puis recherche sur id < curseur.
+    @Query("SELECT new com.paymybuddy.model.DTO.ResponseTransactionDTO(t.id, r.username, t.description, t.amount) " +
+            "FROM Transaction t JOIN t.receiver r " +
+            "WHERE t.sender.id = :senderId " +
+            "ORDER BY t.id DESC")
+    List<ResponseTransactionDTO> findHistoryBySenderId(@Param("senderId") Long senderId, Limit limit);
+
+    @Query("SELECT new com.paymybuddy.model.DTO.ResponseTransactionDTO(t.id, r.username, t.description, t.amount) " +
+            "FROM Transaction t JOIN t.receiver r " +
+            "WHERE t.sender.id = :senderId AND t.id < :beforeId " +
+            "ORDER BY t.id DESC")
+    List<ResponseTransactionDTO> findHistoryBySenderIdBefore(@Param("senderId") Long senderId,
+                                                            @Param("beforeId") Long beforeId,
+                                                            Limit limit);
+
+    // Relevé : chaque requête parcourt son propre index composite (sender_id, id) ou (receiver_id, id)
+    @Query("SELECT new com.paymybuddy.model.DTO.LedgerEntryDTO(t.id, r.username, t.description, t.amount, false, t.transactionDate) " +
+            "FROM Transaction t JOIN t.receiver r " +
+            "WHERE t.sender.id = :userId AND t.id < :beforeId " +
+            "ORDER BY t.id DESC")
+    List<LedgerEntryDTO> findSentLedgerBefore(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("SELECT new com.paymybuddy.model.DTO.LedgerEntryDTO(t.id, s.username, t.description, t.amount, true, t.transactionDate) " +
+            "FROM Transaction t JOIN t.sender s " +
+            "WHERE t.receiver.id = :userId AND t.id < :beforeId " +
+            "ORDER BY t.id DESC")
+    List<LedgerEntryDTO> findReceivedLedgerBefore(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Limit limit);
+
+    // Relevé sur une période [from, to[ : parcours de plage sur (sender_id, transaction_date) et (receiver_id, transaction_date),
+    // paginé par clé (date, id) : seules les lignes strictement avant le curseur sont lues, une page à la fois
+    @Query("SELECT new com.paymybuddy.model.DTO.LedgerEntryDTO(t.id, r.username, t.description, t.amount, false, t.transactionDate) " +
+            "FROM Transaction t JOIN t.receiver r " +
+            "WHERE t.sender.id = :userId AND t.transactionDate >= :from AND t.transactionDate < :to " +
+            "AND (t.transactionDate < :beforeDate OR (t.transactionDate = :beforeDate AND t.id < :beforeId)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<LedgerEntryDTO> findSentLedgerBetween(@Param("userId") Long userId,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("beforeDate") LocalDateTime beforeDate,
+                                               @Param("beforeId") Long beforeId,
+                                               Limit limit);
+
+    @Query("SELECT new com.paymybuddy.model.DTO.LedgerEntryDTO(t.id, s.username, t.description, t.amount, true, t.transactionDate) " +
+            "FROM Transaction t JOIN t.sender s " +
+            "WHERE t.receiver.id = :userId AND t.transactionDate >= :from AND t.transactionDate < :to " +
+            "AND (t.transactionDate < :beforeDate OR (t.transactionDate = :beforeDate AND t.id < :beforeId)) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<LedgerEntryDTO> findReceivedLedgerBetween(@Param("userId") Long userId,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to,
+                                                   @Param("beforeDate") LocalDateTime beforeDate,
+                                                   @Param("beforeId") Long beforeId,
+                                                   Limit limit);
 }
@@ -1,12 +1,20 @@
 package com.paymybuddy.repository;
 
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.model.DTO.ContactSuggestionDTO;
+import com.paymybuddy.model.DTO.UserProfileDTO;
 import com.paymybuddy.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -15,8 +23,138 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
+    @Query("SELECT new com.paymybuddy.model.DTO.UserProfileDTO(u.id, u.username, u.email, u.provider) FROM User u WHERE u.id = :id")
+    Optional<UserProfileDTO> findProfileById(@Param("id") Long id);
+
+    @Query("SELECT new com.paymybuddy.model.DTO.UserProfileDTO(u.id, u.username, u.email, u.provider) FROM User u WHERE u.email = :email")
+    Optional<UserProfileDTO> findProfileByEmail(@Param("email") String email);
+
+    @Query("SELECT new com.paymybuddy.model.DTO.UserProfileDTO(u.id, u.username, u.email, u.provider) FROM User u WHERE u.username = :username")
+    Optional<UserProfileDTO> findProfileByUsername(@Param("username") String username);
+
+    @Query("SELECT u.account FROM User u WHERE u.id = :id")
+    Optional<BigDecimal> findAccountById(@Param("id") Long id);
+
+    /**
+     * Contacts d'un utilisateur, sous forme de paires id / nom d'utilisateur triées par nom.
+     */
+    @Query("SELECT new com.paymybuddy.model.DTO.ContactDTO(c.id, c.username) FROM User u JOIN u.connections c WHERE u.id = :userId ORDER BY c.username")
+    List<ContactDTO> findContactsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Utilisateurs qui ont {@code userId} dans leurs contacts (recherche inverse sur l'index connection_id).
+     */
+    @Query("SELECT new com.paymybuddy.model.DTO.ContactDTO(u.id, u.username) " +
+            "FROM User u JOIN u.connections c " +
+            "WHERE c.id = :userId " +
+            "ORDER BY u.username")
+    List<ContactDTO> findUsersHavingContact(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Ids de tous les utilisateurs qui ont {@code userId} dans leurs contacts, lus sur l'index connection_id
+     * sans jointure sur la table des utilisateurs : ce sont les listes de contacts qui affichent son nom.
+     */
+    @Query("SELECT u.id FROM User u JOIN u.connections c WHERE c.id = :userId")
+    List<Long> findIdsOfUsersHavingContact(@Param("userId") Long userId);
+
+    /**
+     * Contacts communs à deux utilisateurs.
+     */
+    @Query("SELECT new com.paymybuddy.model.DTO.ContactDTO(c.id, c.username) " +
+            "FROM User u JOIN u.connections c " +
+            "WHERE u.id = :userId " +
+            "AND c.id IN (SELECT oc.id FROM User o JOIN o.connections oc WHERE o.id = :otherUserId) " +
+            "ORDER BY c.username")
+    List<ContactDTO> findMutualContacts(@Param("userId") Long userId, @Param("otherUserId") Long otherUserId, Limit limit);
+
+    /**
+     * Contacts de mes contacts que je n'ai pas encore ajoutés, les plus connectés à mon réseau d'abord.
+     */
+    @Query("SELECT new com.paymybuddy.model.DTO.ContactSuggestionDTO(s.id, s.username, COUNT(f.id)) " +
+            "FROM User u JOIN u.connections f JOIN f.connections s " +
+            "WHERE u.id = :userId AND s.id <> :userId " +
+            "AND s.id NOT IN (SELECT c.id FROM User me JOIN me.connections c WHERE me.id = :userId) " +
+            "GROUP BY s.id, s.username " +
+            "ORDER BY COUNT(f.id) DESC, s.username")
+    List<ContactSuggestionDTO> findContactSuggestions(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Indique si {@code candidateId} fait partie des suggestions de {@code userId} : un contact de ses contacts,
+     * autre que lui-même et pas encore dans ses contacts. Même condition que {@link #findContactSuggestions}, sans limite.
+     */
+    @Query("SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END " +
+            "FROM User u JOIN u.connections f JOIN f.connections s " +
+            "WHERE u.id = :userId AND s.id = :candidateId AND s.id <> :userId " +
+            "AND s.id NOT IN (SELECT c.id FROM User me JOIN me.connections c WHERE me.id = :userId)")
+    boolean isContactSuggestion(@Param("userId") Long userId, @Param("candidateId") Long candidateId);
+
+    /**
+     * Indique si {@code connectionId} fait déjà partie des contacts de {@code userId}.
+     * Lecture ponctuelle sur la clé primaire (user_id, connection_id) de user_connections.
+     */
+    @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM User u JOIN u.connections c WHERE u.id = :userId AND c.id = :connectionId")
+    boolean existsConnection(@Param("userId") Long userId, @Param("connectionId") Long connectionId);
+
+    /**
+     * Ajoute directement une ligne dans user_connections, sans recharger ni resauvegarder l'utilisateur.
+     *
+     * @return le nombre de lignes insérées : 0 si l'utilisateur {@code userId} n'existe pas
+     */
     @Modifying
-    @Query("UPDATE User u SET u.account = :account WHERE u.id = :id")
-    void updateAccount(@Param("id") Long id, @Param("account") BigDecimal account);
-}
+    @Query(value = "INSERT INTO user_connections (user_id, connection_id) SELECT u.id, :connectionId FROM users u WHERE u.id = :userId", nativeQuery = true)
+    int addConnection(@Param("userId") Long userId, @Param("connectionId") Long connectionId);
+
+    /**
+     * Noms d'utilisateur commençant par un préfixe, lus en une requête sur l'index unique de username.
+     *
+     * @param escapedPrefix le préfixe, dont les caractères spéciaux de LIKE ({@code %}, {@code _}, {@code !}) sont précédés de {@code !}
+     * @return les noms existants commençant par ce préfixe
+     */
+    @Query("SELECT u.username FROM User u WHERE u.username LIKE CONCAT(:prefix, '%') ESCAPE '!'")
+    List<String> findUsernamesStartingWith(@Param("prefix") String escapedPrefix);
 
+    /**
+     * Verrouille (SELECT ... FOR UPDATE) les utilisateurs demandés dans l'ordre croissant des ids,
+     * afin que deux virements croisés acquièrent leurs verrous dans le même ordre.
+     *
+     * @return les utilisateurs existants parmi les ids demandés, triés par id
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<User> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Remplace le hash du mot de passe d'un compte, sans charger l'entité.
+     *
+     * @return le nombre de lignes modifiées, 0 si aucun compte ne porte cet email
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
+    /**
+     * Coût BCrypt le plus élevé parmi les hashes stockés, préfixés ({@code {bcrypt}$2a$12$...}) ou non.
+     *
+     * @return le coût sur deux chiffres ({@code "12"}), ou {@code null} si aucun hash BCrypt n'est stocké
+     */
+    @Query("SELECT MAX(SUBSTRING(u.password, LOCATE('$2', u.password) + 4, 2)) FROM User u WHERE u.password LIKE '%$2_$__$%'")
+    String findHighestStoredBcryptCost();
+
+    /**
+     * Débite le compte uniquement si le solde en base est suffisant.
+     *
+     * @return le nombre de lignes modifiées : 0 si l'utilisateur n'existe pas ou si le solde est insuffisant
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.account = u.account - :amount WHERE u.id = :id AND u.account >= :amount")
+    int debitAccount(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Crédite le compte de façon relative au solde en base.
+     *
+     * @return le nombre de lignes modifiées : 0 si l'utilisateur n'existe pas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.account = u.account + :amount WHERE u.id = :id")
+    int creditAccount(@Param("id") Long id, @Param("amount") BigDecimal amount);
+}
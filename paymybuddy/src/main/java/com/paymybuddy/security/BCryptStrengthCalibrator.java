@@ -0,0 +1,81 @@
+package com.paymybuddy.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Choisit le facteur de coût BCrypt au démarrage, d'après le temps de vérification mesuré sur la machine.
+ *
+ * <p>
+ * Chaque incrément du coût double le temps de calcul : une seule mesure au coût minimal suffit
+ * pour retenir le coût le plus élevé dont la vérification reste sous la latence cible.
+ * </p>
+ *
+ * <p>
+ * Réservé au développement : la mesure varie d'une machine à l'autre, et des noeuds calibrés différemment
+ * ré-encoderaient les mêmes mots de passe à chaque connexion vers le coût le plus élevé. En production,
+ * le coût est fixé par configuration ; la valeur calibrée est journalisée comme suggestion.
+ * </p>
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+    private static final int WARMUP = 5;
+    private static final int SAMPLES = 5;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * Mesure la vérification d'un mot de passe au coût {@value #MIN_STRENGTH} et en déduit le coût à utiliser.
+     * Les premières vérifications, faites avant la compilation JIT, ne sont pas mesurées.
+     *
+     * @param targetLatency  durée maximale souhaitée pour une vérification de mot de passe
+     * @param storedStrength coût le plus élevé des hashes déjà stockés, 0 s'il n'y en a pas :
+     *                       le coût retenu n'est jamais inférieur, pour ne pas affaiblir les mots de passe existants
+     * @return le coût BCrypt, entre {@value #MIN_STRENGTH} et {@value #MAX_STRENGTH}, ou le coût stocké s'il est plus élevé
+     */
+    public static int calibrate(Duration targetLatency, int storedStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        String hash = encoder.encode("calibration");
+
+        for (int i = 0; i < WARMUP; i++) {
+            encoder.matches("calibration", hash);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.matches("calibration", hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        Duration measured = Duration.ofNanos(best);
+        int strength = Math.max(strengthFor(targetLatency, measured), storedStrength);
+        log.info("Coût BCrypt calibré à {} : {} ms au coût {}, cible {} ms, coût stocké le plus élevé {}. "
+                        + "À fixer par paymybuddy.password-hashing.strength={} en production",
+                strength, measured.toMillis(), MIN_STRENGTH, targetLatency.toMillis(), storedStrength, strength);
+        return strength;
+    }
+
+    /**
+     * Coût le plus élevé dont la durée estimée ne dépasse pas la cible.
+     *
+     * @param targetLatency         durée maximale souhaitée pour une vérification
+     * @param minStrengthVerification durée d'une vérification au coût {@value #MIN_STRENGTH}
+     * @return le coût BCrypt, jamais inférieur à {@value #MIN_STRENGTH} ni supérieur à {@value #MAX_STRENGTH}
+     */
+    static int strengthFor(Duration targetLatency, Duration minStrengthVerification) {
+        long cost = Math.max(1, minStrengthVerification.toNanos());
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && cost * 2 <= targetLatency.toNanos()) {
+            cost *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
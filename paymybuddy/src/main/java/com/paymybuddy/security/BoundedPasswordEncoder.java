@@ -0,0 +1,135 @@
+package com.paymybuddy.security;
+
+import com.paymybuddy.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder qui exécute le hachage et la vérification des mots de passe sur un pool de threads dédié et borné.
+ *
+ * <p>
+ * BCrypt consomme du CPU pendant des dizaines de millisecondes : exécuté sur les threads de requête,
+ * une vague de connexions occupe tous les threads Tomcat et bloque les virements.
+ * Ici, au plus {@code threads} calculs tournent en parallèle et au plus {@code queueCapacity} attendent leur tour.
+ * Au-delà, ou si l'attente dépasse {@code timeout}, l'appel échoue immédiatement avec
+ * {@link PasswordHashingUnavailableException} (réponse 503) au lieu de s'empiler.
+ * </p>
+ *
+ * <p>
+ * Métriques publiées : {@code paymybuddy.password.hashing} (durée du calcul, par opération),
+ * {@code paymybuddy.password.hashing.rejected} (appels refusés) et les métriques {@code executor.*}
+ * du pool {@value #EXECUTOR_NAME}, dont {@code executor.queued} (profondeur de la file).
+ * </p>
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder, DisposableBean {
+
+    static final String EXECUTOR_NAME = "passwordHashing";
+    static final String HASHING_TIMER = "paymybuddy.password.hashing";
+    static final String REJECTED_COUNTER = "paymybuddy.password.hashing.rejected";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    private volatile MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * @param delegate      l'encodeur réel (BCrypt)
+     * @param threads       nombre de calculs simultanés, 0 pour le nombre de processeurs
+     * @param queueCapacity nombre de calculs pouvant attendre un thread libre
+     * @param timeout       délai maximal d'attente d'un calcul, file comprise
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        new ExecutorServiceMetrics(executor, EXECUTOR_NAME, List.of()).bindTo(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(String operation, Callable<T> task) {
+        Timer timer = meterRegistry.timer(HASHING_TIMER, "operation", operation);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException ex) {
+            throw saturated(operation, "file pleine");
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw saturated(operation, "délai dépassé");
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw saturated(operation, "attente interrompue");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private PasswordHashingUnavailableException saturated(String operation, String reason) {
+        meterRegistry.counter(REJECTED_COUNTER, "operation", operation).increment();
+        log.warn("Hachage de mot de passe refusé ({}) : {} en cours, {} en attente",
+                reason, executor.getActiveCount(), executor.getQueue().size());
+        return new PasswordHashingUnavailableException("Le service est momentanément saturé, veuillez réessayer dans quelques instants.");
+    }
+}
@@ -0,0 +1,31 @@
+package com.paymybuddy.security;
+
+import com.paymybuddy.exception.PasswordHashingUnavailableException;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+
+import java.io.IOException;
+
+/**
+ * Échec de connexion par formulaire : 503 si le hachage des mots de passe est saturé,
+ * sinon retour à la page de connexion avec le message d'erreur habituel.
+ */
+public class CustomLoginFailureHandler implements AuthenticationFailureHandler {
+
+    private final AuthenticationFailureHandler loginPage = new SimpleUrlAuthenticationFailureHandler("/login?error");
+
+    @Override
+    public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response, AuthenticationException exception) throws IOException, ServletException {
+        if (exception instanceof PasswordHashingUnavailableException) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exception.getMessage());
+            return;
+        }
+        loginPage.onAuthenticationFailure(request, response, exception);
+    }
+}
@@ -3,16 +3,26 @@ package com.paymybuddy.security;
 import com.paymybuddy.model.AuthProvider;
 import com.paymybuddy.model.User;
 import com.paymybuddy.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
-import java.util.Random;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service OIDC personnalisé pour gérer l'authentification OAuth2 (ex. Google) dans PayMyBuddy.
@@ -22,11 +32,20 @@ import java.util.Random;
  * si nécessaire, et gère les conflits avec les comptes locaux.
  * </p>
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CustomOidcUserService extends OidcUserService {
 
+    static final String LOAD_USER_TIMER = "paymybuddy.oidc.load-user";
+    // Le suffixe est un int : au plus 10 chiffres, qui doivent tenir dans la colonne après le nom de base
+    static final int MAX_BASE_LENGTH = User.USERNAME_LENGTH - String.valueOf(Integer.MAX_VALUE).length();
+    // Doit correspondre à la clause ESCAPE de UserRepository.findUsernamesStartingWith
+    private static final EscapeCharacter LIKE_ESCAPE = EscapeCharacter.of('!');
+
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Charge un utilisateur à partir de la requête OIDC.
@@ -34,6 +53,16 @@ public class CustomOidcUserService extends OidcUserService {
      * <p>
      * Vérifie que l'email est fourni par le fournisseur OAuth2, crée un utilisateur
      * si nécessaire, et empêche les conflits avec les comptes locaux.
+     * Un utilisateur déjà inscrit coûte une seule lecture par email, sans écriture
+     * tant que son fournisseur ne change pas ; le nom d'utilisateur n'est généré que pour un nouveau compte.
+     * L'appel est chronométré dans le timer {@value #LOAD_USER_TIMER}, étiqueté par issue
+     * ({@code created}, {@code existing}, {@code rejected} ou {@code error}).
+     * </p>
+     *
+     * <p>
+     * La recherche et la création du compte se font dans une transaction en lecture-écriture, donc sur la base
+     * principale même lorsqu'un réplica est configuré : un compte tout juste créé est toujours retrouvé,
+     * et la relecture après un conflit d'insertion voit le compte concurrent. L'appel au fournisseur reste hors transaction.
      * </p>
      *
      * @param request la requête OIDC contenant les informations de l'utilisateur
@@ -42,29 +71,80 @@ public class CustomOidcUserService extends OidcUserService {
      */
     @Override
     public OidcUser loadUser(OidcUserRequest request) throws OAuth2AuthenticationException {
-        OidcUser OidcUser = super.loadUser(request);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            OidcUser oidcUser = super.loadUser(request);
 
-        String email = OidcUser.getAttribute("email");
-        String username = OidcUser.getAttribute("name");
-        String provider = request.getClientRegistration().getRegistrationId();
+            String email = oidcUser.getAttribute("email");
+            String username = oidcUser.getAttribute("name");
+            AuthProvider provider = AuthProvider.valueOf(request.getClientRegistration().getRegistrationId().toUpperCase());
 
-        if (!StringUtils.hasText(email)) {
-            throw new OAuth2AuthenticationException(new OAuth2Error("invalid_email"), "Email is required from OAuth2 provider");
-        }
+            if (!StringUtils.hasText(email)) {
+                outcome = "rejected";
+                throw new OAuth2AuthenticationException(new OAuth2Error("invalid_email"), "Email is required from OAuth2 provider");
+            }
 
-        final User user = userRepository.findByEmail(email)
-                .orElse(createNewUser(email, username, provider));
+            final ResolvedUser resolved = findOrCreateUser(email, username, provider);
+            User user = resolved.user();
 
-        if (user.getProvider() == AuthProvider.LOCAL) {
+            if (user.getProvider() == AuthProvider.LOCAL) {
+                outcome = "rejected";
                 throw new OAuth2AuthenticationException(new OAuth2Error("invalid_token"),
                         "Un compte local existe déjà pour cet email. Veuillez vous connecter avec votre email et mot de passe.");
+            }
+
+            outcome = resolved.created() ? "created" : "existing";
+            return new CustomOidcUser(oidcUser, user);
+        } finally {
+            sample.stop(meterRegistry.timer(LOAD_USER_TIMER, "outcome", outcome));
+        }
+    }
+
+    /**
+     * Utilisateur de l'application retrouvé ou créé lors d'une connexion OIDC.
+     */
+    private record ResolvedUser(User user, boolean created) {
+    }
+
+    /**
+     * Retrouve l'utilisateur par email ou le crée, sur la base principale.
+     *
+     * <p>
+     * Si une connexion concurrente a pris le même nom d'utilisateur (ou créé le même compte) entre-temps,
+     * la contrainte d'unicité rejette l'insertion et la transaction est annulée : une seconde et dernière
+     * transaction relit alors l'email, réutilise le compte créé par l'autre connexion ou choisit un nouveau nom.
+     * </p>
+     *
+     * @param email    l'email fourni par le fournisseur
+     * @param name     le nom d'utilisateur proposé par le fournisseur
+     * @param provider le fournisseur OAuth2 utilisé
+     * @return l'utilisateur, et s'il vient d'être créé
+     */
+    private ResolvedUser findOrCreateUser(final String email, final String name, final AuthProvider provider) {
+        try {
+            return transactionTemplate.execute(status -> findOrCreateOnPrimary(email, name, provider));
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Conflit lors de la création de l'utilisateur OIDC {}, nouvel essai", email);
+            return transactionTemplate.execute(status -> findOrCreateOnPrimary(email, name, provider));
         }
+    }
 
-        user.setProvider(AuthProvider.valueOf(provider.toUpperCase()));
+    private ResolvedUser findOrCreateOnPrimary(final String email, final String name, final AuthProvider provider) {
+        final Optional<User> existingUser = userRepository.findByEmail(email);
 
-        userRepository.save(user);
+        if (existingUser.isEmpty()) {
+            return new ResolvedUser(userRepository.save(createNewUser(email, name, provider)), true);
+        }
 
-        return new CustomOidcUser(OidcUser, user);
+        User user = existingUser.get();
+        // Utilisateur connu : aucune écriture, sauf s'il se connecte désormais via un autre fournisseur.
+        // Un compte local est laissé intact, la connexion sera refusée.
+        if (user.getProvider() != AuthProvider.LOCAL && user.getProvider() != provider) {
+            user.setProvider(provider);
+            user = userRepository.save(user);
+        }
+        return new ResolvedUser(user, false);
     }
 
     /**
@@ -72,37 +152,58 @@ public class CustomOidcUserService extends OidcUserService {
      *
      * @param email    l'email de l'utilisateur
      * @param username le nom d'utilisateur proposé
-     * @return le nouvel utilisateur créé
+     * @param provider le fournisseur OAuth2 utilisé
+     * @return le nouvel utilisateur, pas encore enregistré
      */
-    private User createNewUser(final String email, final String username, final String provider) {
+    private User createNewUser(final String email, final String username, final AuthProvider provider) {
         final User user = new User();
         user.setEmail(email);
-        user.setUsername(generateUniqueUsername(username));
-        user.setProvider(AuthProvider.valueOf(provider.toUpperCase()));
+        user.setUsername(generateUniqueUsername(username, email));
+        user.setProvider(provider);
         return user;
     }
 
     /**
-     * Génère un nom d'utilisateur unique en ajoutant un suffixe aléatoire
-     * si nécessaire pour éviter les doublons en base.
+     * Génère un nom d'utilisateur unique à partir du nom fourni par le fournisseur.
+     *
+     * <p>
+     * Une seule requête lit tous les noms existants commençant par ce nom (préfixe LIKE sur l'index unique),
+     * puis le plus petit suffixe numérique libre est choisi en mémoire : le nom lui-même s'il est libre,
+     * sinon nom1, nom2... La comparaison ignore la casse et les accents, comme la collation MySQL.
+     * </p>
      *
-     * @param username le nom d'utilisateur de base
-     * @return un nom d'utilisateur unique
+     * @param name  le nom proposé par le fournisseur, éventuellement absent
+     * @param email l'email, dont la partie locale sert de nom à défaut
+     * @return un nom d'utilisateur libre au moment de la lecture
      */
-    private String generateUniqueUsername(final String username) {
-        final int min = 11;
-        final int max = 99;
-        final var random = new Random();
-        final int suffix = random.nextInt(max - min + 1) + min;
+    String generateUniqueUsername(final String name, final String email) {
+        final String base = baseUsername(name, email);
 
-        final String usernameSuffix = username + suffix;
+        final Set<String> taken = userRepository.findUsernamesStartingWith(LIKE_ESCAPE.escape(base))
+                .stream()
+                .map(CustomOidcUserService::comparisonKey)
+                .collect(Collectors.toSet());
 
-        if (userRepository.findByUsername(usernameSuffix).isEmpty()) {
-            return usernameSuffix;
+        if (!taken.contains(comparisonKey(base))) {
+            return base;
         }
 
-        return generateUniqueUsername(usernameSuffix);
+        int suffix = 1;
+        while (taken.contains(comparisonKey(base + suffix))) {
+            suffix++;
+        }
+        return base + suffix;
     }
 
+    private static String baseUsername(final String name, final String email) {
+        final String base = StringUtils.hasText(name) ? name.trim() : email.split("@", 2)[0];
+        // Place réservée au suffixe numérique dans la colonne username
+        return base.length() > MAX_BASE_LENGTH ? base.substring(0, MAX_BASE_LENGTH) : base;
+    }
 
+    private static String comparisonKey(final String username) {
+        return Normalizer.normalize(username, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
 }
@@ -3,23 +3,41 @@ package com.paymybuddy.security;
 import com.paymybuddy.model.AuthProvider;
 import com.paymybuddy.model.User;
 import com.paymybuddy.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
 
 /**
  * Service chargé de récupérer les informations d'un utilisateur pour l'authentification Spring Security.
- * Implémente UserDetailsService pour permettre la connexion locale par email/mot de passe.
+ * Implémente UserDetailsService pour permettre la connexion locale par email/mot de passe,
+ * et UserDetailsPasswordService pour ré-encoder au coût courant les hashes anciens après une connexion réussie.
  */
+@Slf4j
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    static final String LOGIN_LOOKUP_TIMER = "paymybuddy.login.lookup";
 
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> adminEmails;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${paymybuddy.security.admin-emails:}") Set<String> adminEmails) {
         this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.adminEmails = adminEmails;
     }
 
     /**
@@ -27,7 +45,14 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      *
      * <p>
      * Vérifie que l'utilisateur existe et que son compte est un compte local
-     * (non OAuth2) avec un mot de passe défini.
+     * (non OAuth2) avec un mot de passe défini. Les emails listés dans
+     * {@code paymybuddy.security.admin-emails} reçoivent en plus le rôle ADMIN.
+     * La recherche est chronométrée dans le timer {@value #LOGIN_LOOKUP_TIMER}, étiqueté par issue.
+     * </p>
+     *
+     * <p>
+     * Transaction en lecture-écriture : la recherche part vers la base principale même lorsqu'un réplica
+     * est configuré, pour qu'un utilisateur qui vient de s'inscrire ou de changer de mot de passe puisse se connecter.
      * </p>
      *
      * @param email l'email de l'utilisateur à authentifier
@@ -36,14 +61,47 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * @throws BadCredentialsException   si l'utilisateur existe mais n'a pas de compte local valide
      */
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            User user = userRepository.findByEmail(email).orElse(null);
+
+            if (user == null) {
+                outcome = "not_found";
+                throw new UsernameNotFoundException("User not found");
+            }
+
+            if (user.getPassword() == null || user.getProvider() != AuthProvider.LOCAL) {
+                outcome = "not_local";
+                throw new BadCredentialsException("Connexion locale non autorisée pour ce compte.");
+            }
 
-        if (user.getPassword() == null || user.getProvider() != AuthProvider.LOCAL) {
-            throw new BadCredentialsException("Connexion locale non autorisée pour ce compte.");
+            outcome = "found";
+            return new UserDetailsImpl(user, adminEmails.contains(user.getEmail()));
+        } finally {
+            sample.stop(meterRegistry.timer(LOGIN_LOOKUP_TIMER, "outcome", outcome));
         }
+    }
 
-        return new UserDetailsImpl(user);
+    /**
+     * Enregistre le nouveau hash d'un mot de passe, calculé par Spring Security après une connexion réussie
+     * lorsque l'ancien hash n'utilise pas l'encodeur ou le coût actuels.
+     *
+     * @param user        l'utilisateur qui vient de s'authentifier
+     * @param newPassword le mot de passe ré-encodé
+     * @return l'utilisateur portant le nouveau hash
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        log.info("Hash du mot de passe mis à jour pour l'utilisateur {}", user.getUsername());
+
+        if (user instanceof UserDetailsImpl details) {
+            details.user().setPassword(newPassword);
+        }
+        return user;
     }
 }
@@ -0,0 +1,32 @@
+package com.paymybuddy.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Éviction commune aux caches locaux ({@link UserProfileCache}, {@link ContactListCache}).
+ */
+final class CacheEviction {
+
+    private CacheEviction() {
+    }
+
+    /**
+     * Exécute l'éviction immédiatement puis, dans une transaction, de nouveau après son commit :
+     * une lecture concurrente faite avant le commit ne peut pas laisser en cache l'état d'avant la mise à jour.
+     *
+     * @param eviction l'éviction à exécuter
+     */
+    static void nowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.paymybuddy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cache local des listes de contacts, par id d'utilisateur.
+ *
+ * <p>
+ * Une liste est chargée à la première lecture puis servie depuis la mémoire jusqu'à son expiration
+ * ou jusqu'à l'ajout d'un contact. Les statistiques (succès, échecs, évictions) sont publiées
+ * sous le nom de cache {@code contacts}.
+ * </p>
+ *
+ * <p>
+ * Une liste manquante est toujours chargée depuis la base principale : l'appelant est souvent dans une
+ * transaction en lecture seule, routée vers le réplica, et une liste relue sur un réplica en retard juste
+ * après une éviction resterait en cache jusqu'à son expiration. Hors transaction en lecture-écriture,
+ * le chargement se fait donc dans une transaction à part ; dans une transaction en lecture-écriture,
+ * il la rejoint et voit ses propres écritures.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ContactListCache implements MeterBinder {
+
+    static final String CACHE_NAME = "contacts";
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate primaryRead;
+    private final Cache<Long, List<ContactDTO>> contactsByUserId;
+
+    public ContactListCache(UserRepository userRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${paymybuddy.cache.contacts.maximum-size:10000}") long maximumSize,
+                            @Value("${paymybuddy.cache.contacts.ttl:30m}") Duration ttl) {
+        this.userRepository = userRepository;
+        // Transaction en lecture-écriture (donc base principale), indépendante de celle de l'appelant
+        this.primaryRead = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.contactsByUserId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Contacts de l'utilisateur, triés par nom. La liste renvoyée n'est pas modifiable.
+     */
+    public List<ContactDTO> get(Long userId) {
+        return contactsByUserId.get(userId, this::loadFromPrimary);
+    }
+
+    private List<ContactDTO> loadFromPrimary(Long userId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return List.copyOf(userRepository.findContactsByUserId(userId));
+        }
+        return primaryRead.execute(status -> List.copyOf(userRepository.findContactsByUserId(userId)));
+    }
+
+    /**
+     * Oublie la liste de contacts d'un utilisateur, immédiatement et de nouveau après le commit
+     * de la transaction en cours s'il y en a une.
+     */
+    public void invalidate(Long userId) {
+        CacheEviction.nowAndAfterCommit(() -> contactsByUserId.invalidate(userId));
+        log.debug("Liste de contacts de l'utilisateur {} retirée du cache", userId);
+    }
+
+    /**
+     * Oublie les listes de contacts de plusieurs utilisateurs, immédiatement et de nouveau après le commit :
+     * utilisé quand un nom d'utilisateur change, pour les listes où il apparaît.
+     */
+    public void invalidateAll(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(userIds);
+        CacheEviction.nowAndAfterCommit(() -> contactsByUserId.invalidateAll(ids));
+        log.debug("Listes de contacts de {} utilisateurs retirées du cache", ids.size());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, contactsByUserId, CACHE_NAME);
+    }
+}
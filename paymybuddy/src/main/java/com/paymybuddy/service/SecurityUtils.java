@@ -6,6 +6,8 @@ import com.paymybuddy.model.User;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Optional;
 /**
@@ -19,40 +21,58 @@ import java.util.Optional;
 @Slf4j
 public class SecurityUtils {
 
+    private static final String CONNECTED_USER_ATTRIBUTE = SecurityUtils.class.getName() + ".CONNECTED_USER";
+
     private SecurityUtils() {
     }
 
     /**
      * Récupère l'utilisateur actuellement connecté.
      *
+     * <p>
+     * Pendant une requête HTTP, le principal n'est résolu qu'une seule fois : le résultat est conservé
+     * dans les attributs de la requête et réutilisé tant que l'authentification ne change pas.
+     * </p>
+     *
      * @return un Optional contenant l'utilisateur connecté, ou vide si aucun utilisateur n'est connecté
      */
     public static Optional<User> findConnectedUser() {
         final Authentication authentication = SecurityContextHolder.getContext()
                 .getAuthentication();
 
-        if (authentication != null) {
-            Object principal = authentication.getPrincipal();
+        if (authentication == null) {
+            return Optional.empty();
+        }
 
-            log.info("Principal class: {}", principal.getClass().getName());
-            switch (principal) {
-                case User user -> {
-                    log.debug("User '{}' is connected", user.getUsername());
-                    return Optional.of(user);
-                }
-                case UserDetailsImpl(User user) -> {
-                    log.debug("User '{}' is connected via UserDetailsImpl", user.getUsername());
-                    return Optional.of(user);
-                }
-                case CustomOidcUser customOidcUser -> {
-                    log.debug("User '{}' is connected via OAuth2UserImpl", customOidcUser.getUser().getUsername());
-                    return Optional.of(customOidcUser.getUser());
-                }
-                default -> {
-                }
-            }
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return resolveUser(authentication);
         }
-        return Optional.empty();
+
+        if (requestAttributes.getAttribute(CONNECTED_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                instanceof ResolvedPrincipal(Authentication resolvedFrom, User user)
+                && resolvedFrom == authentication) {
+            return Optional.ofNullable(user);
+        }
+
+        Optional<User> user = resolveUser(authentication);
+        requestAttributes.setAttribute(CONNECTED_USER_ATTRIBUTE,
+                new ResolvedPrincipal(authentication, user.orElse(null)), RequestAttributes.SCOPE_REQUEST);
+        return user;
+    }
+
+    private static Optional<User> resolveUser(Authentication authentication) {
+        User user = switch (authentication.getPrincipal()) {
+            case User connected -> connected;
+            case UserDetailsImpl(User connected, boolean admin) -> connected;
+            case CustomOidcUser customOidcUser -> customOidcUser.getUser();
+            case null, default -> null;
+        };
+
+        if (user != null) {
+            log.debug("User '{}' is connected", user.getUsername());
+        }
+        return Optional.ofNullable(user);
     }
 
     /**
@@ -86,4 +106,9 @@ public class SecurityUtils {
         return findConnectedUser().isPresent();
     }
 
+    /**
+     * Utilisateur résolu pour une authentification donnée ; {@code user} est null pour un principal anonyme.
+     */
+    private record ResolvedPrincipal(Authentication authentication, User user) {
+    }
 }
@@ -0,0 +1,8 @@
+package com.paymybuddy.service;
+
+import com.paymybuddy.model.DTO.TransactionPageView;
+
+public interface TransactionPageService {
+
+    TransactionPageView getTransactionPage(Long userId, Long beforeId, int pageSize);
+}
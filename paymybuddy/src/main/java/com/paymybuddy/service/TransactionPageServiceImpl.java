@@ -0,0 +1,57 @@
+package com.paymybuddy.service;
+
+import com.paymybuddy.exception.UserNotFoundException;
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.model.DTO.TransactionHistoryPage;
+import com.paymybuddy.model.DTO.TransactionPageView;
+import com.paymybuddy.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Modèle de lecture de la page /transferer.
+ *
+ * <p>
+ * Le solde, les contacts et la première page de l'historique sont lus dans une seule transaction
+ * en lecture seule, avec au plus une requête chacun et sans charger d'entité User.
+ * Les contacts viennent du {@link ContactListCache}.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionPageServiceImpl implements TransactionPageService {
+
+    private final UserRepository userRepository;
+    private final TransactionService transactionService;
+    private final ContactListCache contactListCache;
+
+    /**
+     * Récupère les données de la page /transferer pour un utilisateur.
+     *
+     * @param userId   l'identifiant de l'utilisateur connecté
+     * @param beforeId curseur de l'historique (null pour la première page)
+     * @param pageSize nombre de transactions de l'historique
+     * @return le solde, les contacts et la page d'historique demandée
+     * @throws UserNotFoundException si l'utilisateur n'existe pas
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionPageView getTransactionPage(Long userId, Long beforeId, int pageSize) {
+        Assert.notNull(userId, "L'identifiant de l'utilisateur est requis");
+        log.debug("Récupération de la page de transfert de l'utilisateur {}", userId);
+
+        BigDecimal solde = userRepository.findAccountById(userId)
+                .orElseThrow(() -> new UserNotFoundException("L'utilisateur avec l'id " + userId + " n'existe pas"));
+        List<ContactDTO> contacts = contactListCache.get(userId);
+        TransactionHistoryPage history = transactionService.getTransactionHistoryPage(userId, beforeId, pageSize);
+
+        return new TransactionPageView(solde, contacts, history);
+    }
+}
@@ -1,16 +1,25 @@
 package com.paymybuddy.service;
 
+import com.paymybuddy.model.DTO.LedgerPage;
 import com.paymybuddy.model.DTO.TransactionRequest;
 import com.paymybuddy.model.DTO.ResponseTransactionDTO;
+import com.paymybuddy.model.DTO.TransactionHistoryPage;
 import com.paymybuddy.model.Transaction;
 import com.paymybuddy.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TransactionService {
 
     List<Transaction> getTransactionByUserSenderId(Long userId);
 
+    TransactionHistoryPage getTransactionHistoryPage(Long userId, Long beforeId, int pageSize);
+
+    LedgerPage getLedgerPage(Long userId, Long beforeId, int pageSize);
+
+    LedgerPage getLedgerBetween(Long userId, LocalDateTime from, LocalDateTime to, LocalDateTime beforeDate, Long beforeId, int pageSize);
+
     void saveNewTransaction(TransactionRequest transaction, User userSender);
 
     List<ResponseTransactionDTO> getTransactionDTOToShow(List<Transaction> transactions);
@@ -1,20 +1,35 @@
 package com.paymybuddy.service;
 
 import com.paymybuddy.exception.TransactionBusinessException;
+import com.paymybuddy.exception.TransactionBusinessException.Reason;
+import com.paymybuddy.model.DTO.LedgerEntryDTO;
+import com.paymybuddy.model.DTO.LedgerPage;
 import com.paymybuddy.model.DTO.TransactionRequest;
 import com.paymybuddy.model.DTO.ResponseTransactionDTO;
+import com.paymybuddy.model.DTO.TransactionHistoryPage;
 import com.paymybuddy.model.Transaction;
 import com.paymybuddy.model.User;
 import com.paymybuddy.repository.TransactionRepository;
 import com.paymybuddy.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
 
 /**
  * Service de gestion des transactions entre utilisateurs.
@@ -25,8 +40,15 @@ import java.util.List;
 @Slf4j
 public class TransactionServiceImpl implements TransactionService {
 
+    static final int MAX_TRANSFER_ATTEMPTS = 3;
+    static final int MAX_HISTORY_PAGE_SIZE = 100;
+    static final String TRANSFER_TIMER = "paymybuddy.transfer";
+    private static final long RETRY_BACKOFF_MILLIS = 25;
+
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Récupère toutes les transactions effectuées par un utilisateur donné.
@@ -35,52 +57,222 @@ public class TransactionServiceImpl implements TransactionService {
      * @return la liste des transactions où l'utilisateur est l'expéditeur
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactionByUserSenderId(Long userId) {
         log.info("Récupération des transactions de l'utilisateur avec l'id {}", userId);
         return transactionRepository.findBySender_Id(userId);
     }
 
+    /**
+     * Récupère une page de l'historique des transactions envoyées par un utilisateur, les plus récentes d'abord.
+     *
+     * <p>
+     * Pagination par clé sur l'id : le coût d'une page ne dépend pas de la longueur de l'historique.
+     * Les lignes sont projetées directement en DTO (une requête, une jointure, aucune entité managée).
+     * Une ligne supplémentaire est lue pour savoir s'il reste une page suivante.
+     * </p>
+     *
+     * @param userId   l'identifiant de l'utilisateur expéditeur
+     * @param beforeId curseur : seules les transactions d'id strictement inférieur sont renvoyées, null pour la première page
+     * @param pageSize le nombre de transactions par page, borné entre 1 et {@value #MAX_HISTORY_PAGE_SIZE}
+     * @return la page de transactions et le curseur de la page suivante
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionHistoryPage getTransactionHistoryPage(Long userId, Long beforeId, int pageSize) {
+        log.info("Récupération d'une page de transactions de l'utilisateur avec l'id {} avant {}", userId, beforeId);
+        int size = Math.clamp(pageSize, 1, MAX_HISTORY_PAGE_SIZE);
+        Limit limit = Limit.of(size + 1);
+
+        List<ResponseTransactionDTO> transactions = beforeId == null
+                ? transactionRepository.findHistoryBySenderId(userId, limit)
+                : transactionRepository.findHistoryBySenderIdBefore(userId, beforeId, limit);
+
+        boolean hasMore = transactions.size() > size;
+        List<ResponseTransactionDTO> page = hasMore ? transactions.subList(0, size) : transactions;
+        Long nextCursor = hasMore ? page.getLast().getId() : null;
+
+        return new TransactionHistoryPage(page, nextCursor);
+    }
+
+    /**
+     * Récupère une page du relevé d'un utilisateur : transactions envoyées et reçues, les plus récentes d'abord.
+     *
+     * <p>
+     * Les transactions envoyées et reçues sont lues séparément, chacune limitée à une page sur son index
+     * composite, puis fusionnées en mémoire : le coût d'une page reste constant quelle que soit la taille
+     * de la table des transactions.
+     * </p>
+     *
+     * @param userId   l'identifiant de l'utilisateur
+     * @param beforeId curseur : seules les transactions d'id strictement inférieur sont renvoyées, null pour la première page
+     * @param pageSize le nombre de lignes par page, borné entre 1 et {@value #MAX_HISTORY_PAGE_SIZE}
+     * @return la page du relevé et le curseur de la page suivante
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public LedgerPage getLedgerPage(Long userId, Long beforeId, int pageSize) {
+        log.info("Récupération d'une page du relevé de l'utilisateur avec l'id {} avant {}", userId, beforeId);
+        int size = Math.clamp(pageSize, 1, MAX_HISTORY_PAGE_SIZE);
+        Limit limit = Limit.of(size + 1);
+        Long cursor = beforeId == null ? Long.MAX_VALUE : beforeId;
+
+        List<LedgerEntryDTO> entries = Stream.concat(
+                        transactionRepository.findSentLedgerBefore(userId, cursor, limit).stream(),
+                        transactionRepository.findReceivedLedgerBefore(userId, cursor, limit).stream())
+                .sorted(Comparator.comparing(LedgerEntryDTO::getId).reversed())
+                .limit(size + 1L)
+                .toList();
+
+        boolean hasMore = entries.size() > size;
+        List<LedgerEntryDTO> page = hasMore ? entries.subList(0, size) : entries;
+        Long nextCursor = hasMore ? page.getLast().getId() : null;
+
+        return new LedgerPage(page, nextCursor);
+    }
+
+    /**
+     * Récupère une page du relevé d'un utilisateur sur une période : transactions envoyées et reçues entre {@code from}
+     * (inclus) et {@code to} (exclu), les plus récentes d'abord.
+     *
+     * <p>
+     * Chaque sens est lu par un parcours de plage sur son index (sender_id ou receiver_id, transaction_date),
+     * limité à une page et paginé par clé (date, id) : une période étendue ne charge jamais tout l'historique.
+     * </p>
+     *
+     * @param userId     l'identifiant de l'utilisateur
+     * @param from       début de la période, inclus
+     * @param to         fin de la période, exclue
+     * @param beforeDate curseur : date de la dernière ligne de la page précédente, null pour la première page
+     * @param beforeId   curseur : id de la dernière ligne de la page précédente, null pour la première page
+     * @param pageSize   le nombre de lignes par page, borné entre 1 et {@value #MAX_HISTORY_PAGE_SIZE}
+     * @return la page du relevé et le curseur (date, id) de la page suivante
+     * @throws IllegalArgumentException si une borne est absente, si {@code from} n'est pas avant {@code to}
+     *                                  ou si le curseur est incomplet
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public LedgerPage getLedgerBetween(Long userId, LocalDateTime from, LocalDateTime to,
+                                       LocalDateTime beforeDate, Long beforeId, int pageSize) {
+        Assert.notNull(from, "La date de début est requise");
+        Assert.notNull(to, "La date de fin est requise");
+        Assert.isTrue(from.isBefore(to), "La date de début doit précéder la date de fin");
+        Assert.isTrue((beforeDate == null) == (beforeId == null), "Le curseur doit comporter une date et un id");
+        log.info("Récupération d'une page du relevé de l'utilisateur avec l'id {} entre {} et {} avant {}/{}",
+                userId, from, to, beforeDate, beforeId);
+        int size = Math.clamp(pageSize, 1, MAX_HISTORY_PAGE_SIZE);
+        Limit limit = Limit.of(size + 1);
+        // Première page : tout ce qui précède la fin (exclue) de la période
+        LocalDateTime cursorDate = beforeDate == null ? to : beforeDate;
+        Long cursorId = beforeId == null ? Long.MAX_VALUE : beforeId;
+
+        List<LedgerEntryDTO> entries = Stream.concat(
+                        transactionRepository.findSentLedgerBetween(userId, from, to, cursorDate, cursorId, limit).stream(),
+                        transactionRepository.findReceivedLedgerBetween(userId, from, to, cursorDate, cursorId, limit).stream())
+                .sorted(Comparator.comparing(LedgerEntryDTO::getTransactionDate)
+                        .thenComparing(LedgerEntryDTO::getId)
+                        .reversed())
+                .limit(size + 1L)
+                .toList();
+
+        boolean hasMore = entries.size() > size;
+        List<LedgerEntryDTO> page = hasMore ? entries.subList(0, size) : entries;
+        LedgerEntryDTO last = hasMore ? page.getLast() : null;
+
+        return new LedgerPage(page, last == null ? null : last.getId(), last == null ? null : last.getTransactionDate());
+    }
+
     /**
      * Sauvegarde une nouvelle transaction entre un utilisateur expéditeur et un utilisateur destinataire.
      * Vérifie que :
      * - le destinataire existe et n'est pas le même que l'expéditeur,
      * - le montant est valide et ne dépasse pas le solde de l'expéditeur.
      *
+     * <p>
+     * Les soldes sont modifiés par des mises à jour relatives et conditionnelles en base :
+     * le solde éventuellement périmé de {@code userSender} n'est jamais utilisé.
+     * Les deux comptes sont verrouillés dans l'ordre croissant des ids, et le virement est rejoué
+     * jusqu'à {@value #MAX_TRANSFER_ATTEMPTS} fois en cas d'interblocage ou de délai d'attente de verrou.
+     * </p>
+     *
+     * <p>
+     * Si la requête porte une clé d'idempotence, un virement déjà enregistré avec la même clé pour cet expéditeur
+     * n'est pas rejoué : aucun solde n'est modifié et l'appel réussit comme le premier. La clé est vérifiée après
+     * le verrouillage des comptes, ce qui sérialise deux envois simultanés du même formulaire ; la contrainte
+     * unique (sender_id, idempotency_key) garantit qu'un doublon ne peut de toute façon pas être enregistré.
+     * Réutiliser une clé pour un autre destinataire ou un autre montant est refusé.
+     * </p>
+     *
+     * <p>
+     * Chaque virement est chronométré dans le timer {@value #TRANSFER_TIMER}, étiqueté par issue
+     * ({@code success}, {@code replayed}, {@code insufficient_funds}, {@code invalid_receiver}, {@code invalid_amount},
+     * {@code idempotency_conflict}, {@code unavailable} ou {@code error}), avec histogramme de percentiles.
+     * </p>
+     *
      * @param transaction l'objet TransactionRequest contenant le destinataire, le montant et la description
      * @param userSender  l'utilisateur expéditeur de la transaction
-     * @throws TransactionBusinessException si le destinataire est invalide, si le montant est incorrect
-     *                                      ou si le solde est insuffisant
+     * @throws TransactionBusinessException si le destinataire est invalide, si le montant est incorrect,
+     *                                      si le solde est insuffisant, si la clé d'idempotence a servi à un autre virement
+     *                                      ou si les verrous n'ont pu être obtenus
      */
     @Override
-    @Transactional
     public void saveNewTransaction(TransactionRequest transaction, User userSender) {
-        log.info("Tentative de sauvegarde d'une nouvelle transaction. UserSender: {}, Transaction: {}", userSender, transaction);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            outcome = transfer(transaction, userSender) ? "success" : "replayed";
+        } catch (TransactionBusinessException ex) {
+            outcome = ex.getReason().name().toLowerCase(Locale.ROOT);
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(TRANSFER_TIMER)
+                    .description("Durée des virements, par issue")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private boolean transfer(TransactionRequest transaction, User userSender) {
+        log.info("Tentative de sauvegarde d'une nouvelle transaction. UserSender: {}, Transaction: {}", userSender.getId(), transaction);
 
         if(transaction.getUserReceiverId() == null) {
-            throw new TransactionBusinessException("Le destinataire est requis");
+            throw new TransactionBusinessException(Reason.INVALID_RECEIVER, "Le destinataire est requis");
         } else if (transaction.getUserReceiverId().equals(userSender.getId())) {
-            throw new TransactionBusinessException("Vous ne pouvez pas vous envoyer de l'argent à vous même");
+            throw new TransactionBusinessException(Reason.INVALID_RECEIVER, "Vous ne pouvez pas vous envoyer de l'argent à vous même");
         }
 
-        BigDecimal amount = getBigDecimalAndVerifyIfTransactionIsOk(transaction, userSender);
+        BigDecimal amount = getBigDecimalAndVerifyIfTransactionIsOk(transaction);
 
         log.info("Montant valide");
 
-        log.info("Tentative de récupération de l'utilisateur receveur avec l'id {}", transaction.getUserReceiverId());
-        User userReceiver = userRepository.findById((transaction.getUserReceiverId()))
-                .orElseThrow(() -> new TransactionBusinessException("Le destinataire n'existe pas"));
-
-        transferMoney(userSender, userReceiver, amount);
+        // Rejouer n'a de sens que si le virement possède sa propre transaction
+        boolean canRetry = !TransactionSynchronizationManager.isActualTransactionActive();
 
-        Transaction transactionObj = new Transaction(transaction.getDescription(),
-                transaction.getAmount(),
-                userSender,
-                userReceiver);
+        boolean executed;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                executed = Boolean.TRUE.equals(transactionTemplate.execute(status -> transferAndSave(transaction, userSender.getId(), amount)));
+                break;
+            } catch (PessimisticLockingFailureException ex) {
+                if (!canRetry || attempt >= MAX_TRANSFER_ATTEMPTS) {
+                    log.error("Virement abandonné après {} tentative(s) pour cause de verrou", attempt, ex);
+                    throw new TransactionBusinessException(Reason.UNAVAILABLE, "Le service est momentanément indisponible, veuillez réessayer.");
+                }
+                log.warn("Conflit de verrou lors du virement (tentative {}/{}), nouvel essai", attempt, MAX_TRANSFER_ATTEMPTS);
+                backOff(attempt);
+            }
+        }
 
-        transactionRepository.save(transactionObj);
+        if (!executed) {
+            log.info("Virement déjà enregistré pour la clé d'idempotence {} de l'utilisateur {}, rien n'est rejoué",
+                    transaction.getIdempotencyKey(), userSender.getId());
+            return false;
+        }
 
         log.info("Transaction sauvegardée avec succès entre {} et {} pour un montant de {}",
-                userSender.getEmail(), userReceiver.getEmail(), amount);
+                userSender.getId(), transaction.getUserReceiverId(), amount);
+        return true;
     }
 
     /**
@@ -102,19 +294,15 @@ public class TransactionServiceImpl implements TransactionService {
 
     // Utilitaire pour transaction d'argent
 
-    private static BigDecimal getBigDecimalAndVerifyIfTransactionIsOk(TransactionRequest transaction, User userSender) {
+    private static BigDecimal getBigDecimalAndVerifyIfTransactionIsOk(TransactionRequest transaction) {
         BigDecimal amount = transaction.getAmount();
-        BigDecimal account = userSender.getAccount();
 
         if (amount == null) {
-            throw new TransactionBusinessException("Le montant est obligatoire");
+            throw new TransactionBusinessException(Reason.INVALID_AMOUNT, "Le montant est obligatoire");
         }
 
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new TransactionBusinessException("Le montant ne doit pas être inférieur à 0");
-        }
-        if (amount.compareTo(account) > 0) {
-            throw new TransactionBusinessException("Solde insuffisant : " + account + " € disponible, mais " + amount + " € demandé.");
+            throw new TransactionBusinessException(Reason.INVALID_AMOUNT, "Le montant ne doit pas être inférieur à 0");
         }
 
         amount = amount.setScale(2, RoundingMode.HALF_UP);
@@ -122,17 +310,73 @@ public class TransactionServiceImpl implements TransactionService {
         return amount;
     }
 
-    private void transferMoney(User sender, User receiver, BigDecimal amount) {
-        BigDecimal newSenderAccount = sender.getAccount().subtract(amount);
-        BigDecimal newReceiverAccount = receiver.getAccount().add(amount);
+    /**
+     * @return false si un virement existait déjà pour la clé d'idempotence de la requête
+     */
+    private boolean transferAndSave(TransactionRequest transaction, Long senderId, BigDecimal amount) {
+        Long receiverId = transaction.getUserReceiverId();
+        String idempotencyKey = transaction.getIdempotencyKey();
+
+        lockAccounts(senderId, receiverId);
+
+        if (idempotencyKey != null && isAlreadyRecorded(senderId, receiverId, idempotencyKey, amount)) {
+            return false;
+        }
+
+        transferMoney(senderId, receiverId, transaction.getAmount(), amount);
+
+        Transaction transactionObj = new Transaction(transaction.getDescription(),
+                transaction.getAmount(),
+                userRepository.getReferenceById(senderId),
+                userRepository.getReferenceById(receiverId));
+        transactionObj.setIdempotencyKey(idempotencyKey);
+
+        transactionRepository.save(transactionObj);
+        return true;
+    }
+
+    private void lockAccounts(Long senderId, Long receiverId) {
+        log.info("Tentative de verrouillage des comptes {} et {}", senderId, receiverId);
+        // Ordre de verrouillage déterministe : A→B et B→A verrouillent toujours le plus petit id en premier
+        List<User> lockedUsers = userRepository.findAllByIdInForUpdate(List.of(Math.min(senderId, receiverId), Math.max(senderId, receiverId)));
 
-        sender.setAccount(newSenderAccount);
-        receiver.setAccount(newReceiverAccount);
+        if (lockedUsers.stream().noneMatch(u -> receiverId.equals(u.getId()))) {
+            throw new TransactionBusinessException(Reason.INVALID_RECEIVER, "Le destinataire n'existe pas");
+        }
+    }
 
-        userRepository.updateAccount(sender.getId(), newSenderAccount);
-        userRepository.updateAccount(receiver.getId(), newReceiverAccount);
+    private boolean isAlreadyRecorded(Long senderId, Long receiverId, String idempotencyKey, BigDecimal amount) {
+        // Lu sous le verrou du compte expéditeur : un envoi concurrent avec la même clé est déjà validé ou pas encore commencé
+        return transactionRepository.findRecordedTransfer(senderId, idempotencyKey)
+                .map(recorded -> {
+                    if (!receiverId.equals(recorded.getReceiverId()) || recorded.getAmount().compareTo(amount) != 0) {
+                        throw new TransactionBusinessException(Reason.IDEMPOTENCY_CONFLICT,
+                                "Ce formulaire a déjà servi à un autre virement, veuillez recharger la page.");
+                    }
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    private void transferMoney(Long senderId, Long receiverId, BigDecimal requestedAmount, BigDecimal amount) {
+        if (userRepository.debitAccount(senderId, amount) == 0) {
+            BigDecimal account = userRepository.findAccountById(senderId).orElse(BigDecimal.ZERO);
+            throw new TransactionBusinessException(Reason.INSUFFICIENT_FUNDS, "Solde insuffisant : " + account + " € disponible, mais " + requestedAmount + " € demandé.");
+        }
+
+        if (userRepository.creditAccount(receiverId, amount) == 0) {
+            throw new TransactionBusinessException(Reason.INVALID_RECEIVER, "Le destinataire n'existe pas");
+        }
+
+        log.info("Comptes mis à jour : {} débité et {} crédité de {}", senderId, receiverId, amount);
+    }
 
-        log.info("Comptes mis à jour. Nouveau solde de l'expéditeur : {}", sender.getAccount());
-        log.info("Nouveau solde du destinataire : {}", receiver.getAccount());
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransactionBusinessException(Reason.UNAVAILABLE, "Le virement a été interrompu");
+        }
     }
 }
@@ -0,0 +1,128 @@
+package com.paymybuddy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paymybuddy.model.DTO.UserProfileDTO;
+import com.paymybuddy.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache local, borné et à expiration, des profils utilisateur (id, nom d'utilisateur, email, fournisseur).
+ *
+ * <p>
+ * Les profils sont indexés par id, email et nom d'utilisateur. Seuls les utilisateurs trouvés sont mis en cache :
+ * une recherche sans résultat repart toujours en base. Le solde et le mot de passe n'y figurent jamais,
+ * ils sont toujours relus en base.
+ * </p>
+ */
+@Slf4j
+@Component
+public class UserProfileCache implements MeterBinder {
+
+    private final UserRepository userRepository;
+
+    private final Cache<Long, UserProfileDTO> byId;
+    private final Cache<String, UserProfileDTO> byEmail;
+    private final Cache<String, UserProfileDTO> byUsername;
+
+    public UserProfileCache(UserRepository userRepository,
+                            @Value("${paymybuddy.cache.user-profile.maximum-size:10000}") long maximumSize,
+                            @Value("${paymybuddy.cache.user-profile.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.byId = newCache(maximumSize, ttl);
+        this.byEmail = newCache(maximumSize, ttl);
+        this.byUsername = newCache(maximumSize, ttl);
+    }
+
+    public Optional<UserProfileDTO> findById(Long id) {
+        return lookup(byId, id, userRepository::findProfileById);
+    }
+
+    public Optional<UserProfileDTO> findByEmail(String email) {
+        return lookup(byEmail, email, userRepository::findProfileByEmail);
+    }
+
+    public Optional<UserProfileDTO> findByUsername(String username) {
+        return lookup(byUsername, username, userRepository::findProfileByUsername);
+    }
+
+    /**
+     * Retire un utilisateur du cache, sous toutes ses clés.
+     *
+     * <p>
+     * Les anciennes valeurs de l'email et du nom d'utilisateur doivent être passées si elles viennent de changer.
+     * Dans une transaction, l'éviction est refaite après le commit pour qu'une lecture concurrente
+     * ne remette pas en cache l'état d'avant la mise à jour.
+     * </p>
+     *
+     * @param id       l'identifiant de l'utilisateur (peut être null pour un utilisateur non encore enregistré)
+     * @param email    l'email de l'utilisateur avant modification
+     * @param username le nom d'utilisateur avant modification
+     */
+    public void invalidate(Long id, String email, String username) {
+        CacheEviction.nowAndAfterCommit(() -> evict(id, email, username));
+    }
+
+    private void evict(Long id, String email, String username) {
+        if (id != null) {
+            UserProfileDTO cached = byId.getIfPresent(id);
+            if (cached != null) {
+                byEmail.invalidate(cached.getEmail());
+                byUsername.invalidate(cached.getUsername());
+            }
+            byId.invalidate(id);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+        if (username != null) {
+            byUsername.invalidate(username);
+        }
+        log.debug("Profil utilisateur {} retiré du cache", id);
+    }
+
+    private <K> Optional<UserProfileDTO> lookup(Cache<K, UserProfileDTO> cache, K key, Function<K, Optional<UserProfileDTO>> loader) {
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        UserProfileDTO cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<UserProfileDTO> loaded = loader.apply(key);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    private void put(UserProfileDTO profile) {
+        byId.put(profile.getId(), profile);
+        byEmail.put(profile.getEmail(), profile);
+        byUsername.put(profile.getUsername(), profile);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byId, "userProfilesById");
+        CaffeineCacheMetrics.monitor(registry, byEmail, "userProfilesByEmail");
+        CaffeineCacheMetrics.monitor(registry, byUsername, "userProfilesByUsername");
+    }
+
+    private static <K> Cache<K, UserProfileDTO> newCache(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
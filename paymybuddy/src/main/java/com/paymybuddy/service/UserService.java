@@ -1,5 +1,7 @@
 package com.paymybuddy.service;
 
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.model.DTO.ContactSuggestionDTO;
 import com.paymybuddy.model.DTO.RegisterRequest;
 import com.paymybuddy.model.DTO.UpdateUserRequest;
 import com.paymybuddy.model.User;
@@ -13,10 +15,18 @@ public interface UserService {
 
     void registerUser(RegisterRequest request);
 
-    List<User> getListOfConnectionOfCurrentUserById(Long userId);
+    List<ContactDTO> getContactsOfUser(Long userId);
+
+    List<ContactDTO> getUsersHavingAsContact(Long userId, int limit);
+
+    List<ContactDTO> getMutualContacts(Long userId, Long otherUserId, int limit);
+
+    List<ContactSuggestionDTO> getContactSuggestions(Long userId, int limit);
 
     void addUserConnexion(User userConnected, String emailOfAnotherUser);
 
+    void addSuggestedConnexion(User userConnected, Long suggestedUserId);
+
     void updateUser(UpdateUserRequest request, User user);
 
     void depositOnAccount(BigDecimal amount, User user);
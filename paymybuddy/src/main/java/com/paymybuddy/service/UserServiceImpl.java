@@ -5,13 +5,17 @@ import com.paymybuddy.exception.EmailNotFoundException;
 import com.paymybuddy.exception.UserNotFoundException;
 import com.paymybuddy.exception.UsernameConflictException;
 import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.model.DTO.ContactSuggestionDTO;
 import com.paymybuddy.model.DTO.RegisterRequest;
 import com.paymybuddy.model.DTO.UpdateUserRequest;
+import com.paymybuddy.model.DTO.UserProfileDTO;
 import com.paymybuddy.model.User;
 import com.paymybuddy.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.Hibernate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +25,7 @@ import org.springframework.util.StringUtils;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
@@ -36,10 +41,16 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserProfileCache userProfileCache;
+    private final ContactListCache contactListCache;
+
+    static final int MAX_CONTACT_QUERY_LIMIT = 50;
 
     public static final Pattern EMAIL_REGEX = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
 
 
+    @Override
+    @Transactional(readOnly = true)
     public BigDecimal getAccountById(Long userId) {
         Assert.notNull(userId, "L'identifiant de l'utilisateur est requis");
         return userRepository.findById(userId)
@@ -62,7 +73,7 @@ public class UserServiceImpl implements UserService {
         Assert.notNull(request.getUserName(), "Le nom d'utilisateur est requis");
         Assert.notNull(request.getPassword(), "Le mot de passe est requis");
 
-        if(userRepository.findByUsername(request.getUserName()).isPresent()) {
+        if(userProfileCache.findByUsername(request.getUserName()).isPresent()) {
             log.warn("L'utilisateur avec le nom d'utilisateur {}, existe déjà", request.getUserName());
             throw new UsernameConflictException("UserName déjà utilisé");
         }
@@ -82,23 +93,70 @@ public class UserServiceImpl implements UserService {
         user.setProvider(AuthProvider.LOCAL);
 
         userRepository.save(user);
+        userProfileCache.invalidate(user.getId(), user.getEmail(), user.getUsername());
     }
 
     /**
-     * Récupère la liste des connexions (contacts) de l'utilisateur courant.
+     * Récupère les contacts de l'utilisateur courant sous forme de paires id / nom d'utilisateur.
+     *
+     * <p>
+     * Une seule requête sur user_connections, sans charger d'entité User : coût indépendant
+     * des colonnes de la table users (mot de passe, solde...).
+     * </p>
      *
      * @param userId l'identifiant de l'utilisateur
-     * @return la liste des utilisateurs connectés à l'utilisateur
-     * @throws UserNotFoundException si l'utilisateur avec l'id donné n'existe pas
+     * @return les contacts de l'utilisateur triés par nom, vide s'il n'en a pas
      */
     @Override
-    @Transactional
-    public List<User> getListOfConnectionOfCurrentUserById(Long userId) {
-        log.info("Récupération d'un utilisateur avec ses contacts avec l'id {}", userId);
-        User user = userRepository.findById(userId)
-                 .orElseThrow(() -> new UserNotFoundException("Utilisateur introuvable avec l'id : " + userId));
-        Hibernate.initialize(user.getConnections());
-        return user.getConnections();
+    @Transactional(readOnly = true)
+    public List<ContactDTO> getContactsOfUser(Long userId) {
+        Assert.notNull(userId, "L'identifiant de l'utilisateur est requis");
+        return contactListCache.get(userId);
+    }
+
+    /**
+     * Récupère les utilisateurs qui ont ajouté {@code userId} à leurs contacts.
+     *
+     * @param userId l'identifiant de l'utilisateur
+     * @param limit  nombre maximum de résultats, borné à {@link #MAX_CONTACT_QUERY_LIMIT}
+     * @return les utilisateurs triés par nom
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContactDTO> getUsersHavingAsContact(Long userId, int limit) {
+        Assert.notNull(userId, "L'identifiant de l'utilisateur est requis");
+        return userRepository.findUsersHavingContact(userId, boundedLimit(limit));
+    }
+
+    /**
+     * Récupère les contacts communs à deux utilisateurs.
+     *
+     * @param userId      l'identifiant de l'utilisateur
+     * @param otherUserId l'identifiant de l'autre utilisateur
+     * @param limit       nombre maximum de résultats, borné à {@link #MAX_CONTACT_QUERY_LIMIT}
+     * @return les contacts communs triés par nom
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContactDTO> getMutualContacts(Long userId, Long otherUserId, int limit) {
+        Assert.notNull(userId, "L'identifiant de l'utilisateur est requis");
+        Assert.notNull(otherUserId, "L'identifiant de l'autre utilisateur est requis");
+        return userRepository.findMutualContacts(userId, otherUserId, boundedLimit(limit));
+    }
+
+    /**
+     * Suggère de nouveaux contacts : les contacts de mes contacts que je n'ai pas encore ajoutés,
+     * classés par nombre de contacts en commun.
+     *
+     * @param userId l'identifiant de l'utilisateur
+     * @param limit  nombre maximum de suggestions, borné à {@link #MAX_CONTACT_QUERY_LIMIT}
+     * @return les suggestions, les plus connectées à mon réseau d'abord
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContactSuggestionDTO> getContactSuggestions(Long userId, int limit) {
+        Assert.notNull(userId, "L'identifiant de l'utilisateur est requis");
+        return userRepository.findContactSuggestions(userId, boundedLimit(limit));
     }
 
     /**
@@ -122,20 +180,58 @@ public class UserServiceImpl implements UserService {
         }
 
         log.info("Tentative de récupération de l'utilisateur avec l'email {} pour ajouter une connexion avec l'utilisateur {}", emailOfUserToConnect, userConnected.getEmail());
-        User userToConnect = userRepository.findByEmail(emailOfUserToConnect)
+        UserProfileDTO userToConnect = userProfileCache.findByEmail(emailOfUserToConnect)
                 .orElseThrow(() -> new UserNotFoundException("L'utilisateur avec l'email " + emailOfUserToConnect + " n'existe pas, veuillez vérifier."));
 
-        User userConnectedEntity = userRepository.findById(userConnected.getId())
-                        .orElseThrow(() -> new UserNotFoundException("L'utilisateur avec l'id " + userConnected.getId() + " n'existe pas"));
-
-        if(userConnectedEntity.getConnections().contains(userToConnect)) {
-            throw new EmailConflictException("Cette personne fait déjà partie de vos contacts : " + emailOfUserToConnect + " (" + userToConnect.getUsername() + ")");
+        if(userRepository.existsConnection(userConnected.getId(), userToConnect.getId())) {
+            throw alreadyConnected(emailOfUserToConnect, userToConnect);
         }
 
         log.info("Ajout d'une connexion entre {} et {}", userConnected.getEmail(), emailOfUserToConnect);
-        userConnectedEntity.getConnections().add(userToConnect);
+        int inserted;
+        try {
+            inserted = userRepository.addConnection(userConnected.getId(), userToConnect.getId());
+        } catch (DataIntegrityViolationException ex) {
+            // Ajout concurrent du même contact : la clé primaire de user_connections a tranché
+            throw alreadyConnected(emailOfUserToConnect, userToConnect);
+        }
+
+        if(inserted == 0) {
+            throw new UserNotFoundException("L'utilisateur avec l'id " + userConnected.getId() + " n'existe pas");
+        }
 
-        userRepository.save(userConnectedEntity);
+        contactListCache.invalidate(userConnected.getId());
+    }
+
+    /**
+     * Ajoute comme contact un utilisateur proposé dans les suggestions, identifié par son id.
+     *
+     * <p>
+     * L'id vient d'un formulaire : il est accepté seulement s'il correspond encore à une suggestion
+     * de l'utilisateur connecté (un contact de ses contacts, pas encore ajouté). On ne peut donc pas ajouter
+     * n'importe quel utilisateur sans connaître son email.
+     * </p>
+     *
+     * @param userConnected   l'utilisateur connecté
+     * @param suggestedUserId l'id de l'utilisateur suggéré
+     * @throws UserNotFoundException si l'id ne correspond pas à une suggestion de l'utilisateur connecté
+     */
+    @Override
+    @Transactional
+    public void addSuggestedConnexion(User userConnected, Long suggestedUserId) {
+        if(suggestedUserId == null || !userRepository.isContactSuggestion(userConnected.getId(), suggestedUserId)) {
+            throw new UserNotFoundException("Cet utilisateur ne fait pas partie de vos suggestions.");
+        }
+
+        log.info("Ajout d'une connexion suggérée entre {} et {}", userConnected.getId(), suggestedUserId);
+        try {
+            userRepository.addConnection(userConnected.getId(), suggestedUserId);
+        } catch (DataIntegrityViolationException ex) {
+            // Ajout concurrent du même contact : la clé primaire de user_connections a tranché
+            throw new EmailConflictException("Cette personne fait déjà partie de vos contacts.");
+        }
+
+        contactListCache.invalidate(userConnected.getId());
     }
 
     /**
@@ -160,10 +256,16 @@ public class UserServiceImpl implements UserService {
 
         validateUpdateRequest(request);
         checkUpdateConflict(request, userConnected);
+        String previousEmail = userConnected.getEmail();
+        String previousUsername = userConnected.getUsername();
         boolean isUpdate = checkIfSaveItsOkWithUserConnectedAndRequest(request, userConnected);
 
         if(isUpdate) {
             userRepository.save(userConnected);
+            userProfileCache.invalidate(userConnected.getId(), previousEmail, previousUsername);
+            if(!Objects.equals(previousUsername, userConnected.getUsername())) {
+                invalidateContactListsShowing(userConnected.getId());
+            }
             log.info("Mise à jour de l'utilisateur {} réussie", userConnected.getId());
         }
     }
@@ -174,6 +276,7 @@ public class UserServiceImpl implements UserService {
      * @param amount le montant à déposer, doit être positif
      * @param user   l'utilisateur dont le compte est crédité
      * @throws IllegalArgumentException si le montant est négatif ou nul
+     * @throws UserNotFoundException    si l'utilisateur n'existe pas
      */
     @Override
     @Transactional
@@ -184,10 +287,9 @@ public class UserServiceImpl implements UserService {
 
         BigDecimal amountForDeposit = amount.setScale(2, RoundingMode.HALF_UP);
 
-        BigDecimal newAccount = amountForDeposit.add(user.getAccount());
-
-        user.setAccount(newAccount);
-        userRepository.updateAccount(user.getId(), newAccount);
+        if (userRepository.creditAccount(user.getId(), amountForDeposit) == 0) {
+            throw new UserNotFoundException("L'utilisateur avec l'id " + user.getId() + " n'existe pas");
+        }
     }
 
     // UTILITAIRES
@@ -221,12 +323,12 @@ public class UserServiceImpl implements UserService {
         String username = request.getUsername();
 
         // Vérifie que le mail est bien différent de celle d'origine, puis regarde si elle existe en bdd
-        if(!email.equals(userConnected.getEmail()) && userRepository.findByEmail(email).isPresent() ){
+        if(!email.equals(userConnected.getEmail()) && userProfileCache.findByEmail(email).isPresent() ){
             throw new EmailConflictException("L'email existe déjà : " + request.getEmail() + " Veuillez en choisir une autre.");
         }
 
         // Vérifie que la meme chose mais pour l'userName
-        if(!username.equals(userConnected.getUsername()) && userRepository.findByUsername(username).isPresent()){
+        if(!username.equals(userConnected.getUsername()) && userProfileCache.findByUsername(username).isPresent()){
             throw new UsernameConflictException("Le nom d'utilisateur existe déjà : " + request.getUsername() + " Veuillez en choisir un autre.");
         }
     }
@@ -274,16 +376,34 @@ public class UserServiceImpl implements UserService {
         return isUpdate;
     }
 
+    private static Limit boundedLimit(int limit) {
+        return Limit.of(Math.clamp(limit, 1, MAX_CONTACT_QUERY_LIMIT));
+    }
+
+    /**
+     * Retire du cache les listes de contacts qui affichent le nom de cet utilisateur, après un changement de nom.
+     */
+    private void invalidateContactListsShowing(Long userId) {
+        contactListCache.invalidateAll(userRepository.findIdsOfUsersHavingContact(userId));
+    }
+
+    private EmailConflictException alreadyConnected(String email, UserProfileDTO contact) {
+        return new EmailConflictException("Cette personne fait déjà partie de vos contacts : " + email + " (" + contact.getUsername() + ")");
+    }
+
     private void verifyProvider(User existingUser, RegisterRequest request) {
         if(existingUser.getProvider() == AuthProvider.LOCAL){
             log.warn("L'utilisateur avec l'email {}, existe déjà.", request.getEmail());
             throw new EmailConflictException("Email déjà utilisé");
         } else {
             log.info("Un utilisateur existe avec cet email via OAuth. Ajout des identifiants locaux.");
+            String previousUsername = existingUser.getUsername();
             existingUser.setUsername(request.getUserName());
             existingUser.setPassword(passwordEncoder.encode(request.getPassword()));
             existingUser.setProvider(AuthProvider.LOCAL);
             userRepository.save(existingUser);
+            userProfileCache.invalidate(existingUser.getId(), existingUser.getEmail(), previousUsername);
+            invalidateContactListsShowing(existingUser.getId());
         }
     }
 }
@@ -0,0 +1,31 @@
+// "Voir plus" : ajoute la page suivante de l'historique sans recharger la page.
+// Sans JavaScript, le lien renvoie simplement vers /transferer?before=<curseur>.
+document.addEventListener('DOMContentLoaded', () => {
+    const loadMore = document.getElementById('load-more');
+    const rows = document.getElementById('history-rows');
+    if (!loadMore || !rows) {
+        return;
+    }
+
+    loadMore.addEventListener('click', async (event) => {
+        event.preventDefault();
+        const cursor = new URL(loadMore.href).searchParams.get('before');
+        const response = await fetch('/transferer/historique?before=' + encodeURIComponent(cursor));
+        if (!response.ok) {
+            window.location.href = loadMore.href;
+            return;
+        }
+
+        const html = await response.text();
+        const page = new DOMParser().parseFromString('<table>' + html + '</table>', 'text/html');
+        const nextRows = page.querySelector('tbody');
+        rows.append(...nextRows.querySelectorAll('tr'));
+
+        const nextCursor = nextRows.dataset.nextCursor;
+        if (nextCursor) {
+            loadMore.href = '/transferer?before=' + nextCursor;
+        } else {
+            loadMore.remove();
+        }
+    });
+});
@@ -1,14 +1,19 @@
 package com.paymybuddy.controller;
 
+import com.paymybuddy.model.DTO.ContactSuggestionDTO;
 import com.paymybuddy.model.User;
 import com.paymybuddy.service.SecurityUtils;
 import com.paymybuddy.service.UserService;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -31,9 +36,28 @@ class AddRelationControllerTest {
     }
 
     @Test
-    void showAddRelationPage_shouldReturnViewName() {
-        String view = controller.showAddRelationPage();
+    void showAddRelationPage_shouldReturnViewNameWithSuggestions() {
+        List<ContactSuggestionDTO> suggestions = List.of(new ContactSuggestionDTO(3L, "Bob", 2));
+        securityUtilsMock.when(SecurityUtils::getConnectedUserId).thenReturn(1L);
+        when(userService.getContactSuggestions(1L, AddRelationController.SUGGESTION_LIMIT)).thenReturn(suggestions);
+
+        Model model = new ExtendedModelMap();
+        String view = controller.showAddRelationPage(model);
+
+        assertEquals("ajouter-relation", view);
+        assertEquals(suggestions, model.getAttribute("suggestions"));
+    }
+
+    @Test
+    void showAddRelationPage_shouldStillRender_whenSuggestionsFail() {
+        securityUtilsMock.when(SecurityUtils::getConnectedUserId).thenReturn(1L);
+        when(userService.getContactSuggestions(anyLong(), anyInt())).thenThrow(new RuntimeException("fail"));
+
+        Model model = new ExtendedModelMap();
+        String view = controller.showAddRelationPage(model);
+
         assertEquals("ajouter-relation", view);
+        assertEquals(List.of(), model.getAttribute("suggestions"));
     }
 
     @Test
@@ -0,0 +1,122 @@
+package com.paymybuddy.controller;
+
+import com.paymybuddy.model.DTO.LedgerEntryDTO;
+import com.paymybuddy.model.DTO.LedgerPage;
+import com.paymybuddy.service.SecurityUtils;
+import com.paymybuddy.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.view.InternalResourceViewResolver;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerControllerTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        LedgerController controller = new LedgerController(transactionService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setViewResolvers(new InternalResourceViewResolver("/WEB-INF/views/", ".jsp"))
+                .build();
+    }
+
+    @Test
+    void showLedgerPage_shouldShowPageWithEntriesAndCursor() throws Exception {
+        List<LedgerEntryDTO> entries = List.of(new LedgerEntryDTO(5L, "Alice", "resto", BigDecimal.TEN, true));
+
+        try (MockedStatic<SecurityUtils> mockedSecurity = Mockito.mockStatic(SecurityUtils.class)) {
+            mockedSecurity.when(SecurityUtils::getConnectedUserId).thenReturn(1L);
+
+            when(transactionService.getLedgerPage(1L, 12L, LedgerController.LEDGER_PAGE_SIZE))
+                    .thenReturn(new LedgerPage(entries, 5L));
+
+            mockMvc.perform(get("/releve").param("before", "12"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("releve"))
+                    .andExpect(model().attribute("entries", entries))
+                    .andExpect(model().attribute("nextCursor", 5L));
+        }
+    }
+
+    @Test
+    void showLedgerPage_shouldShowPeriodWithInclusiveEndDay() throws Exception {
+        try (MockedStatic<SecurityUtils> mockedSecurity = Mockito.mockStatic(SecurityUtils.class)) {
+            mockedSecurity.when(SecurityUtils::getConnectedUserId).thenReturn(1L);
+
+            when(transactionService.getLedgerBetween(1L,
+                    LocalDateTime.of(2025, 3, 1, 0, 0),
+                    LocalDateTime.of(2025, 4, 1, 0, 0),
+                    null, null, LedgerController.LEDGER_PAGE_SIZE))
+                    .thenReturn(new LedgerPage(List.of(), null));
+
+            mockMvc.perform(get("/releve").param("from", "2025-03-01").param("to", "2025-03-31"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("releve"))
+                    .andExpect(model().attribute("entries", List.of()))
+                    .andExpect(model().attribute("from", LocalDate.of(2025, 3, 1)))
+                    .andExpect(model().attribute("nextCursor", nullValue()));
+
+            verify(transactionService, never()).getLedgerPage(any(), any(), anyInt());
+        }
+    }
+
+    @Test
+    void showLedgerPage_shouldCapPeriodAndPassDateCursor() throws Exception {
+        LocalDateTime cursorDate = LocalDateTime.of(2025, 3, 15, 12, 0);
+        try (MockedStatic<SecurityUtils> mockedSecurity = Mockito.mockStatic(SecurityUtils.class)) {
+            mockedSecurity.when(SecurityUtils::getConnectedUserId).thenReturn(1L);
+
+            when(transactionService.getLedgerBetween(1L,
+                    LocalDate.of(2025, 3, 31).minusDays(LedgerController.MAX_PERIOD_DAYS).atStartOfDay(),
+                    LocalDateTime.of(2025, 4, 1, 0, 0),
+                    cursorDate, 42L, LedgerController.LEDGER_PAGE_SIZE))
+                    .thenReturn(new LedgerPage(List.of(), 7L, cursorDate.minusDays(1)));
+
+            mockMvc.perform(get("/releve")
+                            .param("from", "1970-01-01")
+                            .param("to", "2025-03-31")
+                            .param("before", "42")
+                            .param("beforeDate", "2025-03-15T12:00:00"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attribute("from", LocalDate.of(2025, 3, 31).minusDays(LedgerController.MAX_PERIOD_DAYS)))
+                    .andExpect(model().attribute("nextCursor", 7L))
+                    .andExpect(model().attribute("nextCursorDate", cursorDate.minusDays(1)));
+        }
+    }
+
+    @Test
+    void showLedgerPage_shouldShowErrorWhenServiceThrows() throws Exception {
+        try (MockedStatic<SecurityUtils> mockedSecurity = Mockito.mockStatic(SecurityUtils.class)) {
+            mockedSecurity.when(SecurityUtils::getConnectedUserId).thenReturn(1L);
+
+            when(transactionService.getLedgerPage(1L, null, LedgerController.LEDGER_PAGE_SIZE))
+                    .thenThrow(new RuntimeException("fail"));
+
+            mockMvc.perform(get("/releve"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("releve"))
+                    .andExpect(model().attribute("error", "fail"));
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package com.paymybuddy.controller;
 
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.model.DTO.TransactionHistoryPage;
+import com.paymybuddy.model.DTO.TransactionPageView;
 import com.paymybuddy.model.DTO.TransactionRequest;
-import com.paymybuddy.model.Transaction;
 import com.paymybuddy.model.User;
 import com.paymybuddy.service.SecurityUtils;
+import com.paymybuddy.service.TransactionPageService;
 import com.paymybuddy.service.TransactionService;
-import com.paymybuddy.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
@@ -20,6 +23,8 @@ import org.springframework.web.servlet.view.InternalResourceViewResolver;
 import java.math.BigDecimal;
 import java.util.List;
 
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -32,13 +37,13 @@ class TransactionControllerTest {
     private TransactionService transactionService;
 
     @Mock
-    private UserService userService;
+    private TransactionPageService transactionPageService;
 
     private MockMvc mockMvc;
 
     @BeforeEach
     void setup() {
-        TransactionController controller = new TransactionController(transactionService, userService);
+        TransactionController controller = new TransactionController(transactionService, transactionPageService);
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setViewResolvers(new InternalResourceViewResolver("/WEB-INF/views/", ".jsp"))
                 .build();
@@ -46,24 +51,51 @@ class TransactionControllerTest {
 
     @Test
     void showTransactionPage_shouldShowPageWithModel() throws Exception {
-        User mockUser = new User();
-        mockUser.setUsername("user1");
-
-        List<User> mockConnections = List.of(new User());
-        List<Transaction> mockTransactions = List.of(new Transaction());
+        List<ContactDTO> mockConnections = List.of(new ContactDTO(2L, "friend"));
 
         try (MockedStatic<SecurityUtils> mockedSecurity = Mockito.mockStatic(SecurityUtils.class)) {
             mockedSecurity.when(SecurityUtils::getConnectedUserId).thenReturn(1L);
 
-            when(userService.getListOfConnectionOfCurrentUserById(1L)).thenReturn(mockConnections);
-            when(transactionService.getTransactionByUserSenderId(1L)).thenReturn(mockTransactions);
-            when(transactionService.getTransactionDTOToShow(mockTransactions)).thenReturn(List.of());
+            when(transactionPageService.getTransactionPage(1L, null, TransactionController.HISTORY_PAGE_SIZE))
+                    .thenReturn(new TransactionPageView(new BigDecimal("50.00"), mockConnections, new TransactionHistoryPage(List.of(), null)));
 
             mockMvc.perform(get("/transferer"))
                     .andExpect(status().isOk())
                     .andExpect(view().name("transferer"))
                     .andExpect(model().attributeExists("request"))
-                    .andExpect(model().attributeExists("contacts"))
+                    .andExpect(model().attribute("solde", new BigDecimal("50.00")))
+                    .andExpect(model().attribute("contacts", mockConnections))
+                    .andExpect(model().attributeExists("transactions"))
+                    .andExpect(model().attribute("nextCursor", nullValue()));
+        }
+    }
+
+    @Test
+    void showTransactionPage_shouldPassCursorToService() throws Exception {
+        try (MockedStatic<SecurityUtils> mockedSecurity = Mockito.mockStatic(SecurityUtils.class)) {
+            mockedSecurity.when(SecurityUtils::getConnectedUserId).thenReturn(1L);
+
+            when(transactionPageService.getTransactionPage(1L, 42L, TransactionController.HISTORY_PAGE_SIZE))
+                    .thenReturn(new TransactionPageView(BigDecimal.ZERO, List.of(), new TransactionHistoryPage(List.of(), 22L)));
+
+            mockMvc.perform(get("/transferer").param("before", "42"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("transferer"))
+                    .andExpect(model().attribute("nextCursor", 22L));
+        }
+    }
+
+    @Test
+    void showTransactionHistoryRows_shouldRenderRowsFragment() throws Exception {
+        try (MockedStatic<SecurityUtils> mockedSecurity = Mockito.mockStatic(SecurityUtils.class)) {
+            mockedSecurity.when(SecurityUtils::getConnectedUserId).thenReturn(1L);
+
+            when(transactionService.getTransactionHistoryPage(1L, 42L, TransactionController.HISTORY_PAGE_SIZE))
+                    .thenReturn(new TransactionHistoryPage(List.of(), null));
+
+            mockMvc.perform(get("/transferer/historique").param("before", "42"))
+                    .andExpect(status().isOk())
+                    .andExpect(view().name("transferer :: history-rows"))
                     .andExpect(model().attributeExists("transactions"));
         }
     }
@@ -73,7 +105,7 @@ class TransactionControllerTest {
         try (MockedStatic<SecurityUtils> mockedSecurity = Mockito.mockStatic(SecurityUtils.class)) {
             mockedSecurity.when(SecurityUtils::getConnectedUserId).thenReturn(1L);
 
-            when(userService.getListOfConnectionOfCurrentUserById(1L)).thenThrow(new RuntimeException("fail"));
+            when(transactionPageService.getTransactionPage(1L, null, TransactionController.HISTORY_PAGE_SIZE)).thenThrow(new RuntimeException("fail"));
 
             mockMvc.perform(get("/transferer"))
                     .andExpect(status().is3xxRedirection())
@@ -135,5 +167,41 @@ class TransactionControllerTest {
                     .andExpect(flash().attribute("success", "transaction effectuée avec succès"));
         }
     }
+
+    @Test
+    void processTransaction_shouldPreferIdempotencyKeyHeader_overFormField() throws Exception {
+        User mockUser = new User();
+        try (MockedStatic<SecurityUtils> mockedSecurity = Mockito.mockStatic(SecurityUtils.class)) {
+            mockedSecurity.when(SecurityUtils::getConnectedUser).thenReturn(mockUser);
+
+            mockMvc.perform(post("/transferer")
+                            .header(TransactionController.IDEMPOTENCY_KEY_HEADER, "header-key")
+                            .param("userReceiverId", "1")
+                            .param("amount", "10")
+                            .param("idempotencyKey", "form-key"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(flash().attribute("success", "transaction effectuée avec succès"));
+
+            ArgumentCaptor<TransactionRequest> captor = ArgumentCaptor.forClass(TransactionRequest.class);
+            verify(transactionService).saveNewTransaction(captor.capture(), eq(mockUser));
+            assertEquals("header-key", captor.getValue().getIdempotencyKey());
+        }
+    }
+
+    @Test
+    void processTransaction_shouldRejectIdempotencyKeyHeader_whenLongerThanFormFieldAllows() throws Exception {
+        try (MockedStatic<SecurityUtils> mockedSecurity = Mockito.mockStatic(SecurityUtils.class)) {
+            mockedSecurity.when(SecurityUtils::getConnectedUser).thenReturn(new User());
+
+            mockMvc.perform(post("/transferer")
+                            .header(TransactionController.IDEMPOTENCY_KEY_HEADER, "k".repeat(65))
+                            .param("userReceiverId", "1")
+                            .param("amount", "10"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(flash().attribute("errors", List.of("La clé d'idempotence ne doit pas dépasser 64 caractères")));
+
+            verify(transactionService, never()).saveNewTransaction(any(), any());
+        }
+    }
 }
 
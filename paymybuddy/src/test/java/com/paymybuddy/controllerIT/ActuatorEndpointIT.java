@@ -0,0 +1,93 @@
+package com.paymybuddy.controllerIT;
+
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.User;
+import com.paymybuddy.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Transactional
+@TestPropertySource(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test",
+        "paymybuddy.security.admin-emails=admin@email.com",
+        // Le application.properties de test remplace celui de l'application : l'exposition y est redéclarée
+        "management.endpoints.web.exposure.include=health,prometheus"
+})
+public class ActuatorEndpointIT {
+
+    private static final String PASSWORD = "password";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setup() {
+        userRepository.save(createUser("admin@email.com", "Admin"));
+        userRepository.save(createUser("user@email.com", "User"));
+    }
+
+    @Test
+    @WithAnonymousUser
+    void shouldExposeHealthWithoutAuthentication() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void shouldRequireAuthenticationForPrometheus() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void shouldForbidPrometheusForNonAdminUser() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")
+                        .with(httpBasic("user@email.com", PASSWORD)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void shouldExposePrometheusMetricsToAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")
+                        .with(httpBasic("admin@email.com", PASSWORD)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("jvm_memory_used_bytes")));
+    }
+
+    private User createUser(String email, String username) {
+        User user = new User();
+        user.setEmail(email);
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setProvider(AuthProvider.LOCAL);
+        return user;
+    }
+}
@@ -1,6 +1,7 @@
 package com.paymybuddy.controllerIT;
 
 import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.DTO.ContactDTO;
 import com.paymybuddy.model.User;
 import com.paymybuddy.repository.UserRepository;
 import com.paymybuddy.security.UserDetailsImpl;
@@ -19,9 +20,10 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
+import static org.hamcrest.Matchers.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -80,7 +82,7 @@ public class AddRelationControllerIT {
             userNoFriend.setAccount(new BigDecimal(100));
             userNoFriend.setPassword(passwordEncoder.encode(PASSWORD));
             userNoFriend.setProvider(AuthProvider.LOCAL);
-            userNoFriend.setConnections(new ArrayList<>(List.of()));
+            userNoFriend.setConnections(new HashSet<>(List.of()));
 
             userConnected = new User();
             userConnected.setEmail(SENDER_EMAIL);
@@ -89,8 +91,8 @@ public class AddRelationControllerIT {
             userConnected.setPassword(passwordEncoder.encode(PASSWORD));
             userConnected.setProvider(AuthProvider.LOCAL);
 
-            userFriend.setConnections(new ArrayList<>(List.of()));
-            userConnected.setConnections(new ArrayList<>(List.of(userFriend)));
+            userFriend.setConnections(new HashSet<>(List.of()));
+            userConnected.setConnections(new HashSet<>(List.of(userFriend)));
 
             userRepository.save(userConnected);
             userRepository.save(userFriend);
@@ -120,6 +122,49 @@ public class AddRelationControllerIT {
         assertThat(html).contains("<button type=\"submit\">Ajouter</button>");
     }
 
+    @Test
+    void shouldSuggestContactsOfContacts() throws Exception {
+        userFriend.getConnections().add(userNoFriend);
+        userRepository.save(userFriend);
+
+        mockMvc.perform(get("/ajouter-relation")
+                        .with(user(new UserDetailsImpl(userConnected))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("suggestions", contains(hasProperty("username", is(USERNAME_RECEIVER_2)))))
+                .andExpect(content().string(containsString("1 contact(s) en commun")))
+                .andExpect(content().string(not(containsString(RECEIVER_EMAIL_2))));
+    }
+
+    @Test
+    void shouldAddSuggestedRelationById() throws Exception {
+        userFriend.getConnections().add(userNoFriend);
+        userRepository.save(userFriend);
+
+        mockMvc.perform(post("/ajouter-relation/suggestion")
+                        .with(user(new UserDetailsImpl(userConnected)))
+                        .with(csrf())
+                        .param("id", userNoFriend.getId().toString()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/ajouter-relation"))
+                .andExpect(flash().attribute("success", "Utilisateur ajouté avec succès !"));
+
+        assertEquals(List.of(USERNAME_RECEIVER_1, USERNAME_RECEIVER_2),
+                userRepository.findContactsByUserId(userConnected.getId()).stream().map(ContactDTO::getUsername).toList());
+    }
+
+    @Test
+    void shouldRejectSuggestedRelation_WhenIdIsNotAContactOfAContact() throws Exception {
+        mockMvc.perform(post("/ajouter-relation/suggestion")
+                        .with(user(new UserDetailsImpl(userConnected)))
+                        .with(csrf())
+                        .param("id", userNoFriend.getId().toString()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("error", "Cet utilisateur ne fait pas partie de vos suggestions."));
+
+        assertEquals(List.of(USERNAME_RECEIVER_1),
+                userRepository.findContactsByUserId(userConnected.getId()).stream().map(ContactDTO::getUsername).toList());
+    }
+
     @Test
     @WithAnonymousUser
     public void shouldRedirectToLoginPageWhenNotConnected() throws Exception {
@@ -138,8 +183,9 @@ public class AddRelationControllerIT {
                 .andExpect(redirectedUrl("/ajouter-relation"))
                 .andExpect(flash().attribute("success", "Utilisateur ajouté avec succès !"));
 
-        assertEquals(2, userConnected.getConnections().size());
-        assertEquals(0, userNoFriend.getConnections().size());
+        assertEquals(List.of(USERNAME_RECEIVER_1, USERNAME_RECEIVER_2),
+                userRepository.findContactsByUserId(userConnected.getId()).stream().map(ContactDTO::getUsername).toList());
+        assertThat(userRepository.findContactsByUserId(userNoFriend.getId())).isEmpty();
     }
 
     @Test
@@ -0,0 +1,185 @@
+package com.paymybuddy.controllerIT;
+
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.Transaction;
+import com.paymybuddy.model.User;
+import com.paymybuddy.repository.TransactionRepository;
+import com.paymybuddy.repository.UserRepository;
+import com.paymybuddy.security.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@TestPropertySource(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test"
+})
+public class LedgerControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private User userConnected;
+    private User userFriend;
+    private User userOther;
+
+    @BeforeEach
+    void setup() {
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+
+        userConnected = createUser("ledger@email.com", "LedgerUser");
+        userFriend = createUser("friend@email.com", "Friend");
+        userOther = createUser("other@email.com", "Other");
+
+        transactionRepository.save(new Transaction("Envoyé 1", new BigDecimal(10), userConnected, userFriend));
+        transactionRepository.save(new Transaction("Reçu 1", new BigDecimal(15), userFriend, userConnected));
+        transactionRepository.save(new Transaction("Sans rapport", new BigDecimal(5), userFriend, userOther));
+        transactionRepository.save(new Transaction("Reçu 2", new BigDecimal(20), userOther, userConnected));
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldShowSentAndReceivedTransactionsNewestFirst() throws Exception {
+        mockMvc.perform(get("/releve")
+                        .with(user(new UserDetailsImpl(userConnected))))
+                .andExpect(status().isOk())
+                .andExpect(view().name("releve"))
+                .andExpect(model().attribute("entries", contains(
+                        allOf(hasProperty("description", is("Reçu 2")), hasProperty("counterpartName", is("Other")), hasProperty("received", is(true))),
+                        allOf(hasProperty("description", is("Reçu 1")), hasProperty("counterpartName", is("Friend")), hasProperty("received", is(true))),
+                        allOf(hasProperty("description", is("Envoyé 1")), hasProperty("counterpartName", is("Friend")), hasProperty("received", is(false)))
+                )))
+                .andExpect(model().attribute("nextCursor", nullValue()))
+                .andExpect(content().string(containsString("Reçu de Other")))
+                .andExpect(content().string(containsString("Envoyé à Friend")));
+    }
+
+    @Test
+    void shouldPaginateLedgerWithCursor() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            transactionRepository.save(new Transaction("Page " + i, BigDecimal.ONE, i % 2 == 0 ? userConnected : userFriend, i % 2 == 0 ? userFriend : userConnected));
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/releve")
+                        .with(user(new UserDetailsImpl(userConnected))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("entries", hasSize(20)))
+                .andExpect(model().attribute("nextCursor", notNullValue()))
+                .andReturn();
+
+        Long nextCursor = (Long) firstPage.getModelAndView().getModel().get("nextCursor");
+
+        // 3 lignes initiales + 25 nouvelles = 28 : reste 8 lignes
+        mockMvc.perform(get("/releve")
+                        .param("before", nextCursor.toString())
+                        .with(user(new UserDetailsImpl(userConnected))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("entries", hasSize(8)))
+                .andExpect(model().attribute("nextCursor", nullValue()));
+    }
+
+    @Test
+    void shouldFilterLedgerByPeriod() throws Exception {
+        Transaction march = new Transaction("Mars", new BigDecimal(7), userFriend, userConnected);
+        march.setTransactionDate(LocalDateTime.of(2025, 3, 15, 12, 0));
+        transactionRepository.save(march);
+
+        Transaction april = new Transaction("Avril", new BigDecimal(8), userConnected, userOther);
+        april.setTransactionDate(LocalDateTime.of(2025, 4, 1, 0, 0));
+        transactionRepository.save(april);
+
+        mockMvc.perform(get("/releve")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-31")
+                        .with(user(new UserDetailsImpl(userConnected))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("entries", contains(
+                        allOf(hasProperty("description", is("Mars")), hasProperty("received", is(true)))
+                )))
+                .andExpect(content().string(containsString("15/03/2025 12:00")));
+    }
+
+    @Test
+    void shouldPaginateLedgerPeriodWithDateAndIdCursor() throws Exception {
+        // 25 lignes dans la période, dont plusieurs à la même date : une page de 20 puis une de 5
+        for (int i = 0; i < 25; i++) {
+            Transaction transaction = new Transaction("Période " + i, BigDecimal.ONE,
+                    i % 2 == 0 ? userConnected : userFriend, i % 2 == 0 ? userFriend : userConnected);
+            transaction.setTransactionDate(LocalDateTime.of(2025, 3, 1 + i / 3, 12, 0));
+            transactionRepository.save(transaction);
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/releve")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-31")
+                        .with(user(new UserDetailsImpl(userConnected))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("entries", hasSize(20)))
+                .andExpect(model().attribute("nextCursor", notNullValue()))
+                .andExpect(model().attribute("nextCursorDate", notNullValue()))
+                .andExpect(content().string(containsString("beforeDate=")))
+                .andReturn();
+
+        Long nextCursor = (Long) firstPage.getModelAndView().getModel().get("nextCursor");
+        LocalDateTime nextCursorDate = (LocalDateTime) firstPage.getModelAndView().getModel().get("nextCursorDate");
+
+        mockMvc.perform(get("/releve")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-31")
+                        .param("before", nextCursor.toString())
+                        .param("beforeDate", nextCursorDate.toString())
+                        .with(user(new UserDetailsImpl(userConnected))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("entries", hasSize(5)))
+                .andExpect(model().attribute("entries", hasItem(hasProperty("description", is("Période 0")))))
+                .andExpect(model().attribute("nextCursor", nullValue()));
+    }
+
+    @Test
+    @WithAnonymousUser
+    void shouldRedirectToLoginPageWhenNotConnected() throws Exception {
+        mockMvc.perform(get("/releve"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+    }
+
+    private User createUser(String email, String username) {
+        User user = new User();
+        user.setEmail(email);
+        user.setUsername(username);
+        user.setAccount(new BigDecimal(100));
+        user.setProvider(AuthProvider.LOCAL);
+        return userRepository.save(user);
+    }
+}
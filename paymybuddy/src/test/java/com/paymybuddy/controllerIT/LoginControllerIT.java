@@ -14,6 +14,8 @@ import org.springframework.http.MediaType;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.TestExecutionEvent;
 import org.springframework.security.test.context.support.WithAnonymousUser;
@@ -25,6 +27,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
@@ -56,6 +59,9 @@ public class LoginControllerIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setup() {
         User user = new User();
@@ -141,6 +147,29 @@ public class LoginControllerIT {
                 .andExpect(redirectedUrl("/transferer"));
     }
 
+    @Test
+    @WithAnonymousUser
+    void shouldUpgradeLegacyHashOnSuccessfulLogin() throws Exception {
+        User legacyUser = new User();
+        legacyUser.setUsername("LegacyUser");
+        legacyUser.setEmail("legacy@email.com");
+        // Hash BCrypt sans préfixe {bcrypt}, tel qu'enregistré avant le DelegatingPasswordEncoder
+        legacyUser.setPassword(new BCryptPasswordEncoder(4).encode(goodPassword));
+        legacyUser.setProvider(AuthProvider.LOCAL);
+        userRepository.save(legacyUser);
+
+        mockMvc.perform(post("/login")
+                        .param("email", "legacy@email.com")
+                        .param("password", goodPassword)
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/transferer"));
+
+        String storedHash = jdbcTemplate.queryForObject("SELECT password FROM users WHERE email = ?", String.class, "legacy@email.com");
+        assertTrue(storedHash.startsWith("{bcrypt}"));
+        assertTrue(passwordEncoder.matches(goodPassword, storedHash));
+    }
+
     @Test
     @WithAnonymousUser
     void shouldRejectLoginIfProviderIsNotLocal() throws Exception {
@@ -0,0 +1,194 @@
+package com.paymybuddy.controllerIT;
+
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.Transaction;
+import com.paymybuddy.model.User;
+import com.paymybuddy.repository.TransactionRepository;
+import com.paymybuddy.repository.UserRepository;
+import com.paymybuddy.security.UserDetailsImpl;
+import com.paymybuddy.support.SqlStatementCounter;
+import com.paymybuddy.support.SqlStatementCounter.Kind;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Budgets de requêtes SQL des parcours critiques : un changement qui ajoute une requête à la connexion,
+ * au virement ou au rendu d'une page fait échouer le build.
+ *
+ * <p>
+ * Les caches de profils et de contacts sont désactivés en test (TTL 0) : les budgets correspondent
+ * au pire cas, cache froid. Le contexte de persistance est vidé avant chaque requête mesurée et
+ * synchronisé après, pour compter aussi les écritures différées au flush.
+ * Si un budget doit augmenter, c'est une décision à justifier dans la revue, pas un test à corriger.
+ * </p>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@TestPropertySource(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test"
+})
+public class StatementBudgetIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User userSender;
+    private User userReceiver;
+    private User userNoFriend;
+
+    final static String PASSWORD = "Password";
+
+    @BeforeEach
+    void setup() {
+        userReceiver = createUser("budgetReceiver@test.com", "BudgetReceiver", new HashSet<>());
+        userNoFriend = createUser("budgetNoFriend@test.com", "BudgetNoFriend", new HashSet<>());
+        userSender = createUser("budgetSender@test.com", "BudgetSender", new HashSet<>(List.of(userReceiver)));
+
+        transactionRepository.save(new Transaction("Budget", BigDecimal.ONE, userSender, userReceiver));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void loginShouldCostOneSelect() throws Exception {
+        perform(formLogin("/login")
+                        .user("email", userSender.getEmail())
+                        .password(PASSWORD),
+                redirectedUrl("/transferer"));
+
+        assertBudget(1, 0, 0);
+    }
+
+    @Test
+    void transferPageShouldCostThreeSelects() throws Exception {
+        // Solde, contacts, première page d'historique
+        perform(get("/transferer")
+                        .with(user(new UserDetailsImpl(userSender))),
+                status().isOk());
+
+        assertBudget(3, 0, 0);
+    }
+
+    @Test
+    void transferShouldCostTwoSelectsTwoUpdatesAndOneInsert() throws Exception {
+        // Verrouillage des deux comptes, recherche de la clé d'idempotence, débit, crédit, écriture de la transaction
+        perform(post("/transferer")
+                        .param("userReceiverId", userReceiver.getId().toString())
+                        .param("description", "Budget")
+                        .param("amount", "10")
+                        .param("idempotencyKey", "budget-key")
+                        .with(csrf())
+                        .with(user(new UserDetailsImpl(userSender))),
+                flash().attributeExists("success"));
+
+        assertBudget(2, 1, 2);
+    }
+
+    @Test
+    void addRelationPageShouldCostOneSelect() throws Exception {
+        // Suggestions de contacts
+        perform(get("/ajouter-relation")
+                        .with(user(new UserDetailsImpl(userSender))),
+                status().isOk());
+
+        assertBudget(1, 0, 0);
+    }
+
+    @Test
+    void addRelationShouldCostTwoSelectsAndOneInsert() throws Exception {
+        // Profil du contact, existence du lien, insertion du lien
+        perform(post("/ajouter-relation")
+                        .param("email", userNoFriend.getEmail())
+                        .with(csrf())
+                        .with(user(new UserDetailsImpl(userSender))),
+                flash().attributeExists("success"));
+
+        assertBudget(2, 1, 0);
+    }
+
+    @Test
+    void profileUpdateShouldCostTwoSelectsAndOneUpdate() throws Exception {
+        // Chargement de l'utilisateur, unicité du nouveau nom, mise à jour
+        perform(post("/profil/update")
+                        .param("username", "BudgetRenamed")
+                        .param("email", userSender.getEmail())
+                        .param("password", "")
+                        .with(csrf())
+                        .with(user(new UserDetailsImpl(userSender))),
+                flash().attributeExists("success"));
+
+        assertBudget(2, 0, 1);
+    }
+
+    private void perform(RequestBuilder request, ResultMatcher expected) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(request).andExpect(expected);
+        entityManager.flush();
+    }
+
+    private static void assertBudget(int selects, int inserts, int updates) {
+        String executed = "Requêtes exécutées :\n" + String.join("\n", SqlStatementCounter.statements());
+        assertAll(
+                () -> assertTrue(SqlStatementCounter.count(Kind.SELECT) <= selects, "SELECT au-delà de " + selects + ". " + executed),
+                () -> assertTrue(SqlStatementCounter.count(Kind.INSERT) <= inserts, "INSERT au-delà de " + inserts + ". " + executed),
+                () -> assertTrue(SqlStatementCounter.count(Kind.UPDATE) <= updates, "UPDATE au-delà de " + updates + ". " + executed),
+                () -> assertTrue(SqlStatementCounter.count(Kind.DELETE) == 0, "DELETE inattendu. " + executed)
+        );
+    }
+
+    private User createUser(String email, String username, HashSet<User> connections) {
+        User user = new User();
+        user.setEmail(email);
+        user.setUsername(username);
+        user.setAccount(new BigDecimal(100));
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setProvider(AuthProvider.LOCAL);
+        user.setConnections(connections);
+        return userRepository.save(user);
+    }
+}
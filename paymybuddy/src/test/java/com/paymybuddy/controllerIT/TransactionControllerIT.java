@@ -1,11 +1,13 @@
 package com.paymybuddy.controllerIT;
 import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.DTO.ContactDTO;
 import com.paymybuddy.model.DTO.ResponseTransactionDTO;
 import com.paymybuddy.model.Transaction;
 import com.paymybuddy.model.User;
 import com.paymybuddy.repository.TransactionRepository;
 import com.paymybuddy.repository.UserRepository;
 import com.paymybuddy.security.UserDetailsImpl;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -15,13 +17,16 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 
 import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -49,6 +54,9 @@ public class TransactionControllerIT {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private User userSender;
     private User userReceiver1;
     private User userReceiver2;
@@ -79,8 +87,9 @@ public class TransactionControllerIT {
 
     @Test
     void shouldShowProfilePageWithRequestAttribute() throws Exception {
-        ResponseTransactionDTO response1 = new ResponseTransactionDTO(transaction.getReceiver().getUsername(), transaction.getDescription(), transaction.getAmount());
-        ResponseTransactionDTO response2 = new ResponseTransactionDTO(transaction2.getReceiver().getUsername(), transaction2.getDescription(), transaction2.getAmount());
+        // L'historique est projeté depuis la base : les montants y ont l'échelle de la colonne (2 décimales)
+        ResponseTransactionDTO response1 = new ResponseTransactionDTO(transaction.getReceiver().getUsername(), transaction.getDescription(), transaction.getAmount().setScale(2));
+        ResponseTransactionDTO response2 = new ResponseTransactionDTO(transaction2.getReceiver().getUsername(), transaction2.getDescription(), transaction2.getAmount().setScale(2));
 
         mockMvc.perform(get("/transferer")
                         .with(user(new UserDetailsImpl(userSender))))
@@ -92,10 +101,45 @@ public class TransactionControllerIT {
                         hasProperty("description", nullValue()),
                         hasProperty("amount", nullValue())
                 )))
-                .andExpect(model().attribute("contacts", containsInAnyOrder(userReceiver1, userReceiver2)))
+                .andExpect(model().attribute("contacts", containsInAnyOrder(
+                        new ContactDTO(userReceiver1.getId(), userReceiver1.getUsername()),
+                        new ContactDTO(userReceiver2.getId(), userReceiver2.getUsername()))))
                 .andExpect(model().attribute("transactions", containsInAnyOrder(response1, response2)));
     }
 
+    @Test
+    void shouldPaginateHistoryNewestFirstWithCursor() throws Exception {
+        // 2 transactions existantes + 25 nouvelles = 27 : une page de 20 puis une de 7
+        for (int i = 0; i < 25; i++) {
+            transactionRepository.save(new Transaction("Page " + i, BigDecimal.ONE, userSender, userReceiver1));
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/transferer")
+                        .with(user(new UserDetailsImpl(userSender))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("transactions", hasSize(20)))
+                .andExpect(model().attribute("transactions", hasItem(hasProperty("description", is("Page 24")))))
+                .andExpect(model().attribute("nextCursor", notNullValue()))
+                .andReturn();
+
+        Long nextCursor = (Long) firstPage.getModelAndView().getModel().get("nextCursor");
+
+        mockMvc.perform(get("/transferer")
+                        .param("before", nextCursor.toString())
+                        .with(user(new UserDetailsImpl(userSender))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("transactions", hasSize(7)))
+                .andExpect(model().attribute("transactions", hasItem(hasProperty("description", is("Test description")))))
+                .andExpect(model().attribute("nextCursor", nullValue()));
+
+        mockMvc.perform(get("/transferer/historique")
+                        .param("before", nextCursor.toString())
+                        .with(user(new UserDetailsImpl(userSender))))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Test description 2")))
+                .andExpect(content().string(not(containsString("<form"))));
+    }
+
     @Test
     void ShouldSubmitTransaction() throws Exception {
 
@@ -119,11 +163,80 @@ public class TransactionControllerIT {
                         allOf(
                                 hasProperty("receiverName", is(USERNAME_RECEIVER_1)),
                                 hasProperty("description", is("new Transaction")),
-                                hasProperty("amount", is(new BigDecimal("20")))
+                                hasProperty("amount", comparesEqualTo(new BigDecimal("20")))
                         )
                 )));
     }
 
+    @Test
+    void ShouldEmbedIdempotencyKeyInTransferForm() throws Exception {
+        mockMvc.perform(get("/transferer")
+                        .with(user(new UserDetailsImpl(userSender))))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("request", hasProperty("idempotencyKey", notNullValue())))
+                .andExpect(content().string(containsString("name=\"idempotencyKey\"")));
+    }
+
+    @Test
+    void ShouldTransferOnce_WhenFormIsSubmittedTwiceWithSameKey() throws Exception {
+        BigDecimal accountBefore = userRepository.findAccountById(userSender.getId()).orElseThrow();
+        int transactionsBefore = transactionRepository.findBySender_Id(userSender.getId()).size();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/transferer")
+                            .param("userReceiverId", userReceiver1.getId().toString())
+                            .param("description", "Double clic")
+                            .param("amount", "20")
+                            .param("idempotencyKey", "form-key-1")
+                            .with(csrf())
+                            .with(user(new UserDetailsImpl(userSender))))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(flash().attribute("success", "transaction effectuée avec succès"));
+        }
+
+        assertEquals(0, accountBefore.subtract(new BigDecimal("20")).compareTo(userRepository.findAccountById(userSender.getId()).orElseThrow()));
+        assertEquals(transactionsBefore + 1, transactionRepository.findBySender_Id(userSender.getId()).size());
+    }
+
+    @Test
+    void ShouldTransferOnce_WhenRetriedWithSameIdempotencyKeyHeader() throws Exception {
+        int transactionsBefore = transactionRepository.findBySender_Id(userSender.getId()).size();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/transferer")
+                            .header("Idempotency-Key", "header-key-1")
+                            .param("userReceiverId", userReceiver1.getId().toString())
+                            .param("description", "Rejeu")
+                            .param("amount", "5")
+                            .with(csrf())
+                            .with(user(new UserDetailsImpl(userSender))))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(flash().attribute("success", "transaction effectuée avec succès"));
+        }
+
+        assertEquals(transactionsBefore + 1, transactionRepository.findBySender_Id(userSender.getId()).size());
+    }
+
+    @Test
+    void ShouldRejectReusedIdempotencyKeyForAnotherReceiver() throws Exception {
+        mockMvc.perform(post("/transferer")
+                        .param("userReceiverId", userReceiver1.getId().toString())
+                        .param("amount", "5")
+                        .param("idempotencyKey", "form-key-2")
+                        .with(csrf())
+                        .with(user(new UserDetailsImpl(userSender))))
+                .andExpect(flash().attribute("success", "transaction effectuée avec succès"));
+
+        mockMvc.perform(post("/transferer")
+                        .param("userReceiverId", userReceiver2.getId().toString())
+                        .param("amount", "5")
+                        .param("idempotencyKey", "form-key-2")
+                        .with(csrf())
+                        .with(user(new UserDetailsImpl(userSender))))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("error", "Ce formulaire a déjà servi à un autre virement, veuillez recharger la page."));
+    }
+
     @Test
     void ShouldSubmitTransactionIsOkWithNNumberAtVirgule() throws Exception {
 
@@ -246,10 +359,12 @@ public class TransactionControllerIT {
     @Test
     void ShouldRejectTransactionBecauseAmountIsSuperiorAtAccount() throws Exception {
 
-        BigDecimal account = new BigDecimal(10);
+        BigDecimal account = new BigDecimal("10.00");
         BigDecimal amount = new BigDecimal(100);
 
+        // userSender est géré par la transaction du test : le flush suffit, sans merge de ses contacts
         userSender.setAccount(account);
+        entityManager.flush();
         mockMvc.perform(post("/transferer")
                         .param("userReceiverId", userReceiver1.getId().toString())
                         .param("description", "Self transaction")
@@ -261,6 +376,30 @@ public class TransactionControllerIT {
                 .andExpect(flash().attribute("error", "Solde insuffisant : " + account + " € disponible, mais " + amount + " € demandé."));
     }
 
+    @Test
+    void ShouldDebitAccountFromDatabaseBalanceNotFromPrincipal() throws Exception {
+        // Le principal en session porte un solde périmé : seul le solde en base fait foi.
+        // Copie détachée : modifier userSender, géré par la transaction du test, changerait aussi le solde en base au flush
+        User stalePrincipal = new User();
+        stalePrincipal.setId(userSender.getId());
+        stalePrincipal.setEmail(userSender.getEmail());
+        stalePrincipal.setUsername(userSender.getUsername());
+        stalePrincipal.setProvider(userSender.getProvider());
+        stalePrincipal.setAccount(BigDecimal.ZERO);
+
+        mockMvc.perform(post("/transferer")
+                        .param("userReceiverId", userReceiver1.getId().toString())
+                        .param("description", "Stale principal")
+                        .param("amount", "30")
+                        .with(csrf())
+                        .with(user(new UserDetailsImpl(stalePrincipal))))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("success", "transaction effectuée avec succès"));
+
+        assertEquals(0, new BigDecimal("70").compareTo(userRepository.findAccountById(userSender.getId()).orElseThrow()));
+        assertEquals(0, new BigDecimal("130").compareTo(userRepository.findAccountById(userReceiver1.getId()).orElseThrow()));
+    }
+
     @Test
     void ShouldRejectTransactionBecauseUserReceiverDoesntExist() throws Exception {
 
@@ -335,7 +474,7 @@ public class TransactionControllerIT {
         userSender.setPassword(passwordEncoder.encode(PASSWORD));
         userSender.setProvider(AuthProvider.LOCAL);
 
-        userSender.setConnections(List.of(userReceiver1, userReceiver2));
+        userSender.setConnections(new HashSet<>(List.of(userReceiver1, userReceiver2)));
 
         userRepository.save(userSender);
         userRepository.save(userReceiver1);
@@ -16,7 +16,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
@@ -79,7 +79,7 @@ public class UpdateProfilControllerIT {
         userOAuth.setAccount(new BigDecimal(100));
         userOAuth.setPassword(null);
         userOAuth.setProvider(AuthProvider.GOOGLE);
-        userOAuth.setConnections(new ArrayList<>(List.of()));
+        userOAuth.setConnections(new HashSet<>(List.of()));
 
         userConnected = new User();
         userConnected.setEmail(EMAIL_CONNECTED);
@@ -88,8 +88,8 @@ public class UpdateProfilControllerIT {
         userConnected.setPassword(passwordEncoder.encode(PASSWORD));
         userConnected.setProvider(AuthProvider.LOCAL);
 
-        userAlreadyExist.setConnections(new ArrayList<>(List.of()));
-        userConnected.setConnections(new ArrayList<>(List.of(userAlreadyExist)));
+        userAlreadyExist.setConnections(new HashSet<>(List.of()));
+        userConnected.setConnections(new HashSet<>(List.of(userAlreadyExist)));
 
         userRepository.save(userConnected);
         userRepository.save(userAlreadyExist);
@@ -0,0 +1,58 @@
+package com.paymybuddy.exception;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.sql.SQLTransientConnectionException;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GlobalExceptionHandlerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new UnavailableDatabaseController())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void shouldAnswer503_WhenNoConnectionIsAvailableToBeginTransaction() throws Exception {
+        mockMvc.perform(get("/begin"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void shouldAnswer503_WhenConnectionTimesOutDuringQuery() throws Exception {
+        mockMvc.perform(get("/query"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @RestController
+    static class UnavailableDatabaseController {
+
+        @GetMapping("/begin")
+        String begin() {
+            throw new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                    new SQLTransientConnectionException("primary - Connection is not available, request timed out after 3000ms."));
+        }
+
+        @GetMapping("/query")
+        String query() {
+            throw new DataAccessResourceFailureException("Unable to acquire JDBC Connection",
+                    new SQLTransientConnectionException("replica - Connection is not available, request timed out after 3000ms."));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.paymybuddy.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityEqualityTest {
+
+    @Test
+    void usersWithSameIdShouldBeEqualWhateverTheirOtherFields() {
+        User first = createUser(1L, "alice", new BigDecimal("10.00"));
+        User second = createUser(1L, "alice-renamed", new BigDecimal("99.00"));
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    void usersWithDifferentIdsShouldNotBeEqual() {
+        assertNotEquals(createUser(1L, "alice", BigDecimal.ZERO), createUser(2L, "alice", BigDecimal.ZERO));
+    }
+
+    @Test
+    void transientUserShouldOnlyBeEqualToItself() {
+        User transientUser = createUser(null, "alice", BigDecimal.ZERO);
+        User sameFields = createUser(null, "alice", BigDecimal.ZERO);
+
+        assertEquals(transientUser, transientUser);
+        assertNotEquals(transientUser, sameFields);
+        assertNotEquals(transientUser, createUser(1L, "alice", BigDecimal.ZERO));
+    }
+
+    @Test
+    void userHashCodeShouldIgnoreBalanceChanges() {
+        User user = createUser(1L, "alice", BigDecimal.ZERO);
+        Set<User> users = new HashSet<>(Set.of(user));
+
+        user.setAccount(new BigDecimal("500.00"));
+        user.setUsername("alice2");
+
+        assertTrue(users.contains(createUser(1L, "other", BigDecimal.ONE)));
+    }
+
+    @Test
+    void transactionsShouldBeComparedById() {
+        User sender = createUser(1L, "alice", BigDecimal.ZERO);
+        User receiver = createUser(2L, "bob", BigDecimal.ZERO);
+
+        Transaction first = new Transaction("a", BigDecimal.ONE, sender, receiver);
+        first.setId(5L);
+        Transaction second = new Transaction("b", BigDecimal.TEN, receiver, sender);
+        second.setId(5L);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(new Transaction("a", BigDecimal.ONE, sender, receiver), new Transaction("a", BigDecimal.ONE, sender, receiver));
+    }
+
+    private User createUser(Long id, String username, BigDecimal account) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(username + "@email.com");
+        user.setAccount(account);
+        return user;
+    }
+}
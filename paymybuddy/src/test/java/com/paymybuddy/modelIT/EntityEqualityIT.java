@@ -0,0 +1,89 @@
+package com.paymybuddy.modelIT;
+
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.User;
+import com.paymybuddy.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie que comparer ou hacher des utilisateurs chargés depuis la base ne déclenche aucun chargement paresseux.
+ */
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test"
+})
+public class EntityEqualityIT {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long userId;
+    private Long friendId;
+
+    @BeforeEach
+    void setup() {
+        userRepository.deleteAll();
+
+        User friend = userRepository.save(createUser("friend@email.com", "Friend"));
+        User user = createUser("user@email.com", "User");
+        user.setConnections(new HashSet<>(List.of(friend)));
+        userRepository.save(user);
+
+        userId = user.getId();
+        friendId = friend.getId();
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void hashSetOperationsShouldNotInitializeConnections() {
+        User user = userRepository.findById(userId).orElseThrow();
+        User friend = userRepository.findById(friendId).orElseThrow();
+
+        Set<User> users = new HashSet<>(List.of(user, friend));
+
+        assertTrue(users.contains(userRepository.findById(userId).orElseThrow()));
+        assertFalse(Hibernate.isInitialized(user.getConnections()));
+        assertFalse(Hibernate.isInitialized(friend.getConnections()));
+    }
+
+    @Test
+    void proxyShouldEqualLoadedUserWithoutBeingInitialized() {
+        User proxy = userRepository.getReferenceById(friendId);
+        entityManager.clear();
+        User loaded = userRepository.findById(friendId).orElseThrow();
+
+        // equals ne lit que getId(), que le proxy connaît sans aller en base
+        assertEquals(loaded, proxy);
+        assertFalse(Hibernate.isInitialized(proxy));
+    }
+
+    private User createUser(String email, String username) {
+        User user = new User();
+        user.setEmail(email);
+        user.setUsername(username);
+        user.setAccount(new BigDecimal(100));
+        user.setProvider(AuthProvider.LOCAL);
+        return user;
+    }
+}
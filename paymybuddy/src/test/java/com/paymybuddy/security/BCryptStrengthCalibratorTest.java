@@ -0,0 +1,42 @@
+package com.paymybuddy.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptStrengthCalibratorTest {
+
+    @Test
+    void strengthFor_ShouldDoubleCostPerStepUntilTarget() {
+        // 20 ms au coût 10 : 40 ms au coût 11, 80 ms au coût 12, 160 ms au coût 13
+        assertEquals(12, BCryptStrengthCalibrator.strengthFor(Duration.ofMillis(100), Duration.ofMillis(20)));
+    }
+
+    @Test
+    void strengthFor_ShouldKeepMinimum_WhenHardwareIsSlowerThanTarget() {
+        assertEquals(BCryptStrengthCalibrator.MIN_STRENGTH,
+                BCryptStrengthCalibrator.strengthFor(Duration.ofMillis(100), Duration.ofMillis(250)));
+    }
+
+    @Test
+    void strengthFor_ShouldNotExceedMaximum() {
+        assertEquals(BCryptStrengthCalibrator.MAX_STRENGTH,
+                BCryptStrengthCalibrator.strengthFor(Duration.ofSeconds(10), Duration.ofNanos(1)));
+    }
+
+    @Test
+    void calibrate_ShouldReturnStrengthWithinBounds() {
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ofMillis(1), 0);
+
+        assertEquals(BCryptStrengthCalibrator.MIN_STRENGTH, strength);
+    }
+
+    @Test
+    void calibrate_ShouldNotGoBelowStoredStrength() {
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ofMillis(1), 13);
+
+        assertEquals(13, strength);
+    }
+}
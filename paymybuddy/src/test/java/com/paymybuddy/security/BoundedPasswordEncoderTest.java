@@ -0,0 +1,118 @@
+package com.paymybuddy.security;
+
+import com.paymybuddy.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private PasswordEncoder delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(PasswordEncoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // Un seul calcul à la fois, un seul en attente
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5));
+        passwordEncoder.bindTo(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    void encodeAndMatches_ShouldDelegateOnDedicatedThread() {
+        // Given
+        when(delegate.encode("secret")).thenAnswer(invocation -> Thread.currentThread().getName());
+        when(delegate.matches("secret", "hash")).thenReturn(true);
+
+        // When
+        String threadName = passwordEncoder.encode("secret");
+        boolean matches = passwordEncoder.matches("secret", "hash");
+
+        // Then
+        assertTrue(threadName.startsWith("password-hashing-"));
+        assertTrue(matches);
+        assertEquals(1, meterRegistry.get(BoundedPasswordEncoder.HASHING_TIMER).tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get(BoundedPasswordEncoder.HASHING_TIMER).tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void matches_ShouldRejectImmediately_WhenPoolAndQueueAreFull() throws Exception {
+        // Given : un calcul bloqué sur le thread du pool, un second dans la file
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return true;
+        });
+
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("a", "hash"));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("b", "hash"));
+        waitUntilQueued();
+
+        // When & Then
+        PasswordHashingUnavailableException ex = assertThrows(PasswordHashingUnavailableException.class,
+                () -> passwordEncoder.matches("c", "hash"));
+        assertTrue(ex.getMessage().contains("saturé"));
+        assertEquals(1, meterRegistry.get(BoundedPasswordEncoder.REJECTED_COUNTER).tag("operation", "matches").counter().count());
+
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void encode_ShouldFail_WhenWaitExceedsTimeout() throws Exception {
+        // Given
+        passwordEncoder.destroy();
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofMillis(50));
+        passwordEncoder.bindTo(meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.encode("slow")).thenAnswer(invocation -> {
+            release.await();
+            return "hash";
+        });
+
+        // When & Then
+        assertThrows(PasswordHashingUnavailableException.class, () -> passwordEncoder.encode("slow"));
+        release.countDown();
+    }
+
+    @Test
+    void matches_ShouldPropagateDelegateException() {
+        when(delegate.matches("secret", "invalid")).thenThrow(new IllegalArgumentException("Encoded password does not look like BCrypt"));
+
+        assertThrows(IllegalArgumentException.class, () -> passwordEncoder.matches("secret", "invalid"));
+    }
+
+    @Test
+    void bindTo_ShouldPublishQueueDepth() {
+        assertNotNull(meterRegistry.find("executor.queued").tag("name", BoundedPasswordEncoder.EXECUTOR_NAME).gauge());
+    }
+
+    private void waitUntilQueued() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("executor.queued").tag("name", BoundedPasswordEncoder.EXECUTOR_NAME).gauge().value() < 1) {
+            assertTrue(System.nanoTime() < deadline, "le second calcul n'a jamais atteint la file");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.paymybuddy.security;
+
+import com.paymybuddy.model.User;
+import com.paymybuddy.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomOidcUserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private CustomOidcUserService customOidcUserService;
+
+    @BeforeEach
+    void setUp() {
+        customOidcUserService = new CustomOidcUserService(userRepository, new SimpleMeterRegistry(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void generateUniqueUsername_ShouldKeepName_WhenFree() {
+        // Given
+        when(userRepository.findUsernamesStartingWith("Jean Martin")).thenReturn(List.of("Jean Martinez"));
+
+        // When
+        String username = customOidcUserService.generateUniqueUsername("Jean Martin", "jean@gmail.com");
+
+        // Then
+        assertEquals("Jean Martin", username);
+    }
+
+    @Test
+    void generateUniqueUsername_ShouldPickSmallestFreeSuffix_WithSingleQuery() {
+        // Given : la comparaison ignore la casse et les accents, comme la collation MySQL
+        when(userRepository.findUsernamesStartingWith("Jean Martin"))
+                .thenReturn(List.of("Jean Martin", "Jean Martin1", "jean martin2", "Jéan Martin3", "Jean Martin5"));
+
+        // When
+        String username = customOidcUserService.generateUniqueUsername("Jean Martin", "jean@gmail.com");
+
+        // Then
+        assertEquals("Jean Martin4", username);
+        verify(userRepository, times(1)).findUsernamesStartingWith(any());
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void generateUniqueUsername_ShouldEscapeLikeWildcards() {
+        // Given
+        when(userRepository.findUsernamesStartingWith("100!% sure!_!!")).thenReturn(List.of());
+
+        // When
+        String username = customOidcUserService.generateUniqueUsername("100% sure_!", "jean@gmail.com");
+
+        // Then
+        assertEquals("100% sure_!", username);
+    }
+
+    @Test
+    void generateUniqueUsername_ShouldUseEmailLocalPart_WhenNameIsMissing() {
+        // Given
+        when(userRepository.findUsernamesStartingWith("jean.martin")).thenReturn(List.of());
+
+        // When
+        String username = customOidcUserService.generateUniqueUsername(null, "jean.martin@gmail.com");
+
+        // Then
+        assertEquals("jean.martin", username);
+    }
+
+    @Test
+    void generateUniqueUsername_ShouldLeaveRoomForSuffix_WhenNameIsTooLong() {
+        // Given
+        String base = "a".repeat(CustomOidcUserService.MAX_BASE_LENGTH);
+        String longName = "a".repeat(User.USERNAME_LENGTH + 20);
+        when(userRepository.findUsernamesStartingWith(base)).thenReturn(List.of(base));
+
+        // When
+        String username = customOidcUserService.generateUniqueUsername(longName, "jean@gmail.com");
+
+        // Then
+        assertEquals(base + "1", username);
+        assertTrue(username.length() <= User.USERNAME_LENGTH);
+    }
+}
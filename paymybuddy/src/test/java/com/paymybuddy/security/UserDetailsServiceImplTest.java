@@ -3,6 +3,7 @@ package com.paymybuddy.security;
 import com.paymybuddy.model.AuthProvider;
 import com.paymybuddy.model.User;
 import com.paymybuddy.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -10,6 +11,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -18,11 +20,13 @@ class UserDetailsServiceImplTest {
 
     private UserRepository userRepository;
     private UserDetailsServiceImpl userDetailsService;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        userDetailsService = new UserDetailsServiceImpl(userRepository);
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsService = new UserDetailsServiceImpl(userRepository, meterRegistry, Set.of("admin@example.com"));
     }
 
     @Test
@@ -38,9 +42,25 @@ class UserDetailsServiceImplTest {
 
         assertNotNull(userDetails);
         assertEquals(user.getEmail(), userDetails.getUsername());
+        assertFalse(userDetails.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+        assertEquals(1, meterRegistry.get(UserDetailsServiceImpl.LOGIN_LOOKUP_TIMER).tag("outcome", "found").timer().count());
         verify(userRepository, times(1)).findByEmail("test@example.com");
     }
 
+    @Test
+    void loadUserByUsername_UserIsConfiguredAdmin_GrantsAdminRole() {
+        User user = new User();
+        user.setEmail("admin@example.com");
+        user.setPassword("hashedPassword");
+        user.setProvider(AuthProvider.LOCAL);
+
+        when(userRepository.findByEmail("admin@example.com")).thenReturn(Optional.of(user));
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername("admin@example.com");
+
+        assertTrue(userDetails.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+    }
+
     @Test
     void loadUserByUsername_UserDoesNotExist_ThrowsUsernameNotFoundException() {
         when(userRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
@@ -48,6 +68,7 @@ class UserDetailsServiceImplTest {
         assertThrows(UsernameNotFoundException.class, () ->
                 userDetailsService.loadUserByUsername("unknown@example.com"));
 
+        assertEquals(1, meterRegistry.get(UserDetailsServiceImpl.LOGIN_LOOKUP_TIMER).tag("outcome", "not_found").timer().count());
         verify(userRepository, times(1)).findByEmail("unknown@example.com");
     }
 
@@ -76,4 +97,18 @@ class UserDetailsServiceImplTest {
         assertThrows(BadCredentialsException.class, () ->
                 userDetailsService.loadUserByUsername("test@example.com"));
     }
+
+    @Test
+    void updatePassword_ShouldStoreNewHashAndReturnUpdatedUser() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setPassword("$2a$10$oldHash");
+        user.setProvider(AuthProvider.LOCAL);
+        UserDetailsImpl userDetails = new UserDetailsImpl(user);
+
+        UserDetails updated = userDetailsService.updatePassword(userDetails, "{bcrypt}$2a$12$newHash");
+
+        verify(userRepository).updatePasswordByEmail("test@example.com", "{bcrypt}$2a$12$newHash");
+        assertEquals("{bcrypt}$2a$12$newHash", updated.getPassword());
+    }
 }
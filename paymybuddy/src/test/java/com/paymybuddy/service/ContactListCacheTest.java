@@ -0,0 +1,111 @@
+package com.paymybuddy.service;
+
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContactListCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ContactListCache contactListCache;
+
+    @BeforeEach
+    void setUp() {
+        contactListCache = new ContactListCache(userRepository, new TransactionTemplate(transactionManager), 100, Duration.ofMinutes(30));
+    }
+
+    @Test
+    void get_ShouldLoadOnceThenServeFromMemory() {
+        List<ContactDTO> contacts = List.of(new ContactDTO(2L, "Bob"));
+        when(userRepository.findContactsByUserId(1L)).thenReturn(contacts);
+
+        assertEquals(contacts, contactListCache.get(1L));
+        assertEquals(contacts, contactListCache.get(1L));
+
+        verify(userRepository, times(1)).findContactsByUserId(1L);
+    }
+
+    @Test
+    void get_ShouldLoadInNewReadWriteTransaction_OutsideReadWriteTransaction() {
+        when(userRepository.findContactsByUserId(1L)).thenReturn(List.of());
+
+        contactListCache.get(1L);
+
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                        && !definition.isReadOnly()));
+    }
+
+    @Test
+    void get_ShouldReturnUnmodifiableList() {
+        when(userRepository.findContactsByUserId(1L)).thenReturn(new ArrayList<>(List.of(new ContactDTO(2L, "Bob"))));
+
+        List<ContactDTO> contacts = contactListCache.get(1L);
+
+        assertThrows(UnsupportedOperationException.class, () -> contacts.add(new ContactDTO(3L, "Eve")));
+    }
+
+    @Test
+    void invalidate_ShouldReloadOnNextRead() {
+        when(userRepository.findContactsByUserId(1L))
+                .thenReturn(List.of(new ContactDTO(2L, "Bob")))
+                .thenReturn(List.of(new ContactDTO(2L, "Bob"), new ContactDTO(3L, "Carol")));
+
+        contactListCache.get(1L);
+        contactListCache.invalidate(1L);
+
+        assertEquals(2, contactListCache.get(1L).size());
+    }
+
+    @Test
+    void invalidateAll_ShouldReloadOnlyTheGivenUsers() {
+        when(userRepository.findContactsByUserId(anyLong())).thenReturn(List.of());
+
+        contactListCache.get(1L);
+        contactListCache.get(2L);
+        contactListCache.get(3L);
+        contactListCache.invalidateAll(List.of(1L, 2L));
+        contactListCache.get(1L);
+        contactListCache.get(2L);
+        contactListCache.get(3L);
+
+        verify(userRepository, times(2)).findContactsByUserId(1L);
+        verify(userRepository, times(2)).findContactsByUserId(2L);
+        verify(userRepository, times(1)).findContactsByUserId(3L);
+    }
+
+    @Test
+    void bindTo_ShouldPublishHitAndMissCounts() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        contactListCache.bindTo(registry);
+        when(userRepository.findContactsByUserId(1L)).thenReturn(List.of());
+
+        contactListCache.get(1L);
+        contactListCache.get(1L);
+        contactListCache.get(1L);
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", ContactListCache.CACHE_NAME).tag("result", "miss").functionCounter().count());
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", ContactListCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+    }
+}
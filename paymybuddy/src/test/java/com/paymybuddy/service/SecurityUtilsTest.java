@@ -6,10 +6,13 @@ import com.paymybuddy.security.UserDetailsImpl;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.Optional;
 
@@ -27,9 +30,10 @@ class SecurityUtilsTest {
     @AfterEach
     void teardown() {
         securityContextHolderMock.close();
+        RequestContextHolder.resetRequestAttributes();
     }
 
-    private void mockAuthentication(Object principal) {
+    private Authentication mockAuthentication(Object principal) {
         Authentication authentication = Mockito.mock(Authentication.class);
         Mockito.when(authentication.getPrincipal()).thenReturn(principal);
 
@@ -37,6 +41,7 @@ class SecurityUtilsTest {
         Mockito.when(securityContext.getAuthentication()).thenReturn(authentication);
 
         securityContextHolderMock.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+        return authentication;
     }
 
     @Test
@@ -163,4 +168,32 @@ class SecurityUtilsTest {
 
         assertFalse(SecurityUtils.isConnected());
     }
+
+    @Test
+    void findConnectedUser_insideRequest_resolvesPrincipalOnce() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        User user = new User();
+        user.setId(7L);
+
+        Authentication authentication = mockAuthentication(new UserDetailsImpl(user));
+
+        assertTrue(SecurityUtils.isConnected());
+        assertEquals(7L, SecurityUtils.getConnectedUserId());
+        assertSame(user, SecurityUtils.getConnectedUser());
+
+        Mockito.verify(authentication, Mockito.times(1)).getPrincipal();
+    }
+
+    @Test
+    void findConnectedUser_insideRequest_resolvesAgainWhenAuthenticationChanges() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        mockAuthentication("anonymousUser");
+        assertFalse(SecurityUtils.isConnected());
+
+        User user = new User();
+        user.setUsername("justLoggedIn");
+        mockAuthentication(user);
+
+        assertEquals("justLoggedIn", SecurityUtils.getConnectedUser().getUsername());
+    }
 }
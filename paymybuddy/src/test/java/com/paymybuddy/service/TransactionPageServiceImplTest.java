@@ -0,0 +1,68 @@
+package com.paymybuddy.service;
+
+import com.paymybuddy.exception.UserNotFoundException;
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.model.DTO.ResponseTransactionDTO;
+import com.paymybuddy.model.DTO.TransactionHistoryPage;
+import com.paymybuddy.model.DTO.TransactionPageView;
+import com.paymybuddy.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionPageServiceImplTest {
+
+    @InjectMocks
+    private TransactionPageServiceImpl transactionPageService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private ContactListCache contactListCache;
+
+    @Test
+    void getTransactionPage_ShouldAssembleBalanceContactsAndHistory() {
+        // Given
+        List<ContactDTO> contacts = List.of(new ContactDTO(2L, "Alice"), new ContactDTO(3L, "Bob"));
+        TransactionHistoryPage history = new TransactionHistoryPage(
+                List.of(new ResponseTransactionDTO(9L, "Alice", "Repas", BigDecimal.TEN)), null);
+
+        when(userRepository.findAccountById(1L)).thenReturn(Optional.of(new BigDecimal("42.00")));
+        when(contactListCache.get(1L)).thenReturn(contacts);
+        when(transactionService.getTransactionHistoryPage(1L, null, 20)).thenReturn(history);
+
+        // When
+        TransactionPageView page = transactionPageService.getTransactionPage(1L, null, 20);
+
+        // Then
+        assertEquals(new BigDecimal("42.00"), page.getSolde());
+        assertEquals(contacts, page.getContacts());
+        assertSame(history, page.getHistory());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getTransactionPage_ShouldThrow_WhenUserNotFound() {
+        when(userRepository.findAccountById(1L)).thenReturn(Optional.empty());
+
+        UserNotFoundException ex = assertThrows(UserNotFoundException.class,
+                () -> transactionPageService.getTransactionPage(1L, null, 20));
+
+        assertEquals("L'utilisateur avec l'id 1 n'existe pas", ex.getMessage());
+        verifyNoInteractions(transactionService);
+    }
+}
@@ -1,21 +1,33 @@
 package com.paymybuddy.service;
 
 import com.paymybuddy.exception.TransactionBusinessException;
+import com.paymybuddy.model.DTO.LedgerEntryDTO;
+import com.paymybuddy.model.DTO.LedgerPage;
+import com.paymybuddy.model.DTO.RecordedTransferDTO;
 import com.paymybuddy.model.DTO.ResponseTransactionDTO;
+import com.paymybuddy.model.DTO.TransactionHistoryPage;
 import com.paymybuddy.model.DTO.TransactionRequest;
 import com.paymybuddy.model.Transaction;
 import com.paymybuddy.model.User;
 import com.paymybuddy.repository.TransactionRepository;
 import com.paymybuddy.repository.UserRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +46,12 @@ public class TransactionServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
 
     // ==== Groupe saveNewTransaction ====
     @Tag("saveNewTransaction")
@@ -90,13 +108,15 @@ public class TransactionServiceImplTest {
         sender.setAccount(BigDecimal.valueOf(100.0));
         TransactionRequest request = createTransactionRequest(2L, BigDecimal.valueOf(50.0), "Test");
 
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        when(userRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(sender));
 
         // When & Then
         TransactionBusinessException ex = assertThrows(TransactionBusinessException.class,
                 () -> transactionService.saveNewTransaction(request, sender));
         assertEquals("Le destinataire n'existe pas", ex.getMessage());
+        assertEquals(1, transferCount("invalid_receiver"));
 
+        verify(userRepository, never()).debitAccount(any(), any());
         verify(transactionRepository, never()).save(any());
     }
 
@@ -110,7 +130,11 @@ public class TransactionServiceImplTest {
         receiver.setAccount(BigDecimal.valueOf(100.00));
         TransactionRequest request = createTransactionRequest(2L, BigDecimal.valueOf(50.00), "Paiement");
 
-        when(userRepository.findById(2L)).thenReturn(Optional.of(receiver));
+        when(userRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(sender, receiver));
+        when(userRepository.debitAccount(1L, new BigDecimal("50.00"))).thenReturn(1);
+        when(userRepository.creditAccount(2L, new BigDecimal("50.00"))).thenReturn(1);
+        when(userRepository.getReferenceById(1L)).thenReturn(sender);
+        when(userRepository.getReferenceById(2L)).thenReturn(receiver);
         // When
         transactionService.saveNewTransaction(request, sender);
 
@@ -124,9 +148,57 @@ public class TransactionServiceImplTest {
         assertEquals(sender, savedTransaction.getSender());
         assertEquals(receiver, savedTransaction.getReceiver());
 
+        // Mises à jour relatives : le solde en mémoire n'est jamais réécrit
+        verify(userRepository).debitAccount(sender.getId(), new BigDecimal("50.00"));
+        verify(userRepository).creditAccount(receiver.getId(), new BigDecimal("50.00"));
+        verify(userRepository, never()).findById(any());
+        assertEquals(1, transferCount("success"));
+    }
+
+    @Tag("saveNewTransaction")
+    @Test
+    void saveNewTransaction_ShouldNotTransferAgain_WhenIdempotencyKeyAlreadyRecorded() {
+        // Given
+        User sender = createUser(1L, "sender@example.com", "Sender");
+        User receiver = createUser(2L, "receiver@example.com", "Receiver");
+        TransactionRequest request = createTransactionRequest(2L, BigDecimal.valueOf(50.00), "Paiement");
+        request.setIdempotencyKey("key-1");
+
+        RecordedTransferDTO recorded = new RecordedTransferDTO(2L, new BigDecimal("50.00"));
+        when(userRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(sender, receiver));
+        when(transactionRepository.findRecordedTransfer(1L, "key-1")).thenReturn(Optional.of(recorded));
+
+        // When
+        transactionService.saveNewTransaction(request, sender);
+
+        // Then
+        verify(userRepository, never()).debitAccount(any(), any());
+        verify(userRepository, never()).creditAccount(any(), any());
+        verify(transactionRepository, never()).save(any());
+        assertEquals(1, transferCount("replayed"));
+    }
+
+    @Tag("saveNewTransaction")
+    @Test
+    void saveNewTransaction_ShouldThrow_WhenIdempotencyKeyWasUsedForAnotherAmount() {
+        // Given
+        User sender = createUser(1L, "sender@example.com", "Sender");
+        User receiver = createUser(2L, "receiver@example.com", "Receiver");
+        TransactionRequest request = createTransactionRequest(2L, BigDecimal.valueOf(80.00), "Paiement");
+        request.setIdempotencyKey("key-1");
+
+        RecordedTransferDTO recorded = new RecordedTransferDTO(2L, new BigDecimal("50.00"));
+        when(userRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(sender, receiver));
+        when(transactionRepository.findRecordedTransfer(1L, "key-1")).thenReturn(Optional.of(recorded));
+
+        // When & Then
+        TransactionBusinessException ex = assertThrows(TransactionBusinessException.class,
+                () -> transactionService.saveNewTransaction(request, sender));
+        assertEquals(TransactionBusinessException.Reason.IDEMPOTENCY_CONFLICT, ex.getReason());
+        assertEquals(1, transferCount("idempotency_conflict"));
 
-        verify(userRepository).updateAccount(sender.getId(), new BigDecimal("50.00"));   // 100 - 50
-        verify(userRepository).updateAccount(receiver.getId(), new BigDecimal("150.00")); // 100 + 50
+        verify(userRepository, never()).debitAccount(any(), any());
+        verify(transactionRepository, never()).save(any());
     }
 
     @Test
@@ -150,8 +222,9 @@ public class TransactionServiceImplTest {
         User sender = createUser(3L, "sender@example.com", "Sender" );
         sender.setAccount(BigDecimal.valueOf(100));
 
-        User receiver = new User();
-        receiver.setEmail("receiver@example.com");
+        when(userRepository.findAllByIdInForUpdate(List.of(1L, 3L))).thenReturn(List.of(createUser(1L, "receiver@example.com", "Receiver"), sender));
+        when(userRepository.debitAccount(3L, new BigDecimal("200.00"))).thenReturn(0);
+        when(userRepository.findAccountById(3L)).thenReturn(Optional.of(BigDecimal.valueOf(100)));
 
         TransactionBusinessException exception = assertThrows(TransactionBusinessException.class, () ->
                 transactionService.saveNewTransaction(request, sender)
@@ -160,6 +233,88 @@ public class TransactionServiceImplTest {
         assertEquals("Solde insuffisant : " + sender.getAccount() + " € disponible, mais " + request.getAmount() + " € demandé.", exception.getMessage());
         assertTrue(exception.getMessage().contains("100"));
         assertTrue(exception.getMessage().contains("200"));
+        verify(userRepository, never()).creditAccount(any(), any());
+        verify(transactionRepository, never()).save(any());
+        assertEquals(1, transferCount("insufficient_funds"));
+        assertEquals(0, transferCount("success"));
+    }
+
+    @Test
+    void testSaveNewTransaction_shouldUseDatabaseBalance_whenInMemoryBalanceIsStale() {
+        TransactionRequest request = createTransactionRequest(2L, BigDecimal.valueOf(80), "Sender");
+
+        User sender = createUser(1L, "sender@example.com", "Sender" );
+        sender.setAccount(BigDecimal.valueOf(10));
+
+        when(userRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(sender, createUser(2L, "receiver@example.com", "Receiver")));
+        when(userRepository.debitAccount(1L, new BigDecimal("80.00"))).thenReturn(1);
+        when(userRepository.creditAccount(2L, new BigDecimal("80.00"))).thenReturn(1);
+
+        transactionService.saveNewTransaction(request, sender);
+
+        verify(transactionRepository, times(1)).save(any());
+    }
+
+    @Tag("saveNewTransaction")
+    @Test
+    void saveNewTransaction_ShouldLockAccountsInAscendingIdOrder_WhenSenderIdIsGreater() {
+        // Given : B (id 5) paie A (id 2), les verrous doivent être pris sur 2 puis 5
+        User sender = createUser(5L, "sender@example.com", "Sender");
+        User receiver = createUser(2L, "receiver@example.com", "Receiver");
+        TransactionRequest request = createTransactionRequest(2L, BigDecimal.valueOf(10), "Paiement");
+
+        when(userRepository.findAllByIdInForUpdate(List.of(2L, 5L))).thenReturn(List.of(receiver, sender));
+        when(userRepository.debitAccount(5L, new BigDecimal("10.00"))).thenReturn(1);
+        when(userRepository.creditAccount(2L, new BigDecimal("10.00"))).thenReturn(1);
+
+        // When
+        transactionService.saveNewTransaction(request, sender);
+
+        // Then
+        verify(userRepository).findAllByIdInForUpdate(List.of(2L, 5L));
+        verify(transactionRepository, times(1)).save(any());
+    }
+
+    @Tag("saveNewTransaction")
+    @Test
+    void saveNewTransaction_ShouldRetry_WhenLockCannotBeAcquired() {
+        // Given
+        User sender = createUser(1L, "sender@example.com", "Sender");
+        User receiver = createUser(2L, "receiver@example.com", "Receiver");
+        TransactionRequest request = createTransactionRequest(2L, BigDecimal.valueOf(10), "Paiement");
+
+        when(userRepository.findAllByIdInForUpdate(List.of(1L, 2L)))
+                .thenThrow(new CannotAcquireLockException("Deadlock found"))
+                .thenReturn(List.of(sender, receiver));
+        when(userRepository.debitAccount(1L, new BigDecimal("10.00"))).thenReturn(1);
+        when(userRepository.creditAccount(2L, new BigDecimal("10.00"))).thenReturn(1);
+
+        // When
+        transactionService.saveNewTransaction(request, sender);
+
+        // Then
+        verify(userRepository, times(2)).findAllByIdInForUpdate(List.of(1L, 2L));
+        verify(transactionRepository, times(1)).save(any());
+    }
+
+    @Tag("saveNewTransaction")
+    @Test
+    void saveNewTransaction_ShouldThrow_WhenLockConflictPersists() {
+        // Given
+        User sender = createUser(1L, "sender@example.com", "Sender");
+        TransactionRequest request = createTransactionRequest(2L, BigDecimal.valueOf(10), "Paiement");
+
+        when(userRepository.findAllByIdInForUpdate(List.of(1L, 2L)))
+                .thenThrow(new CannotAcquireLockException("Lock wait timeout exceeded"));
+
+        // When & Then
+        TransactionBusinessException ex = assertThrows(TransactionBusinessException.class,
+                () -> transactionService.saveNewTransaction(request, sender));
+        assertEquals("Le service est momentanément indisponible, veuillez réessayer.", ex.getMessage());
+
+        verify(userRepository, times(TransactionServiceImpl.MAX_TRANSFER_ATTEMPTS)).findAllByIdInForUpdate(List.of(1L, 2L));
+        verify(userRepository, never()).debitAccount(any(), any());
+        verify(transactionRepository, never()).save(any());
     }
 
     // ==== Groupe getTransactionByUserSenderId ====
@@ -244,6 +399,165 @@ public class TransactionServiceImplTest {
     }
 
 
+    // ==== Groupe getTransactionHistoryPage ====
+    @Tag("getTransactionHistoryPage")
+    @Test
+    void getTransactionHistoryPage_ShouldReturnFirstPageWithCursor_WhenMoreTransactionsExist() {
+        // Given
+        List<ResponseTransactionDTO> rows = List.of(
+                new ResponseTransactionDTO(30L, "Receiver", "desc30", BigDecimal.TEN),
+                new ResponseTransactionDTO(20L, "Receiver", "desc20", BigDecimal.TEN),
+                new ResponseTransactionDTO(10L, "Receiver", "desc10", BigDecimal.TEN));
+
+        when(transactionRepository.findHistoryBySenderId(1L, Limit.of(3))).thenReturn(rows);
+
+        // When
+        TransactionHistoryPage page = transactionService.getTransactionHistoryPage(1L, null, 2);
+
+        // Then
+        assertEquals(2, page.getTransactions().size());
+        assertEquals("desc30", page.getTransactions().get(0).getDescription());
+        assertEquals("desc20", page.getTransactions().get(1).getDescription());
+        assertEquals(20L, page.getNextCursor());
+        assertTrue(page.hasMore());
+    }
+
+    @Tag("getTransactionHistoryPage")
+    @Test
+    void getTransactionHistoryPage_ShouldSeekBeforeCursor_AndReturnNoCursorOnLastPage() {
+        // Given
+        when(transactionRepository.findHistoryBySenderIdBefore(1L, 20L, Limit.of(3)))
+                .thenReturn(List.of(new ResponseTransactionDTO(10L, "Receiver", "desc10", BigDecimal.TEN)));
+
+        // When
+        TransactionHistoryPage page = transactionService.getTransactionHistoryPage(1L, 20L, 2);
+
+        // Then
+        assertEquals(1, page.getTransactions().size());
+        assertEquals("Receiver", page.getTransactions().getFirst().getReceiverName());
+        assertNull(page.getNextCursor());
+        assertFalse(page.hasMore());
+        verify(transactionRepository, never()).findBySender_Id(any());
+    }
+
+    @Tag("getTransactionHistoryPage")
+    @Test
+    void getTransactionHistoryPage_ShouldCapPageSize() {
+        // Given
+        when(transactionRepository.findHistoryBySenderId(1L, Limit.of(TransactionServiceImpl.MAX_HISTORY_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        // When
+        TransactionHistoryPage page = transactionService.getTransactionHistoryPage(1L, null, 100_000);
+
+        // Then
+        assertTrue(page.getTransactions().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+
+    // ==== Groupe getLedgerPage ====
+    @Tag("getLedgerPage")
+    @Test
+    void getLedgerPage_ShouldMergeSentAndReceivedNewestFirst() {
+        // Given
+        when(transactionRepository.findSentLedgerBefore(1L, Long.MAX_VALUE, Limit.of(4))).thenReturn(List.of(
+                new LedgerEntryDTO(9L, "Bob", "envoi9", BigDecimal.TEN, false),
+                new LedgerEntryDTO(4L, "Bob", "envoi4", BigDecimal.TEN, false)));
+        when(transactionRepository.findReceivedLedgerBefore(1L, Long.MAX_VALUE, Limit.of(4))).thenReturn(List.of(
+                new LedgerEntryDTO(8L, "Alice", "recu8", BigDecimal.ONE, true),
+                new LedgerEntryDTO(7L, "Alice", "recu7", BigDecimal.ONE, true),
+                new LedgerEntryDTO(2L, "Alice", "recu2", BigDecimal.ONE, true)));
+
+        // When
+        LedgerPage page = transactionService.getLedgerPage(1L, null, 3);
+
+        // Then
+        assertEquals(List.of(9L, 8L, 7L), page.getEntries().stream().map(LedgerEntryDTO::getId).toList());
+        assertTrue(page.getEntries().get(1).isReceived());
+        assertEquals(7L, page.getNextCursor());
+    }
+
+    @Tag("getLedgerPage")
+    @Test
+    void getLedgerPage_ShouldSeekBeforeCursor_AndReturnNoCursorOnLastPage() {
+        // Given
+        when(transactionRepository.findSentLedgerBefore(1L, 7L, Limit.of(4))).thenReturn(List.of(
+                new LedgerEntryDTO(4L, "Bob", "envoi4", BigDecimal.TEN, false)));
+        when(transactionRepository.findReceivedLedgerBefore(1L, 7L, Limit.of(4))).thenReturn(List.of(
+                new LedgerEntryDTO(2L, "Alice", "recu2", BigDecimal.ONE, true)));
+
+        // When
+        LedgerPage page = transactionService.getLedgerPage(1L, 7L, 3);
+
+        // Then
+        assertEquals(List.of(4L, 2L), page.getEntries().stream().map(LedgerEntryDTO::getId).toList());
+        assertNull(page.getNextCursor());
+        assertFalse(page.hasMore());
+    }
+
+
+    // ==== Groupe getLedgerBetween ====
+    @Tag("getLedgerBetween")
+    @Test
+    void getLedgerBetween_ShouldMergeSentAndReceivedByDateNewestFirst() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 4, 1, 0, 0);
+
+        when(transactionRepository.findSentLedgerBetween(1L, from, to, to, Long.MAX_VALUE, Limit.of(4))).thenReturn(List.of(
+                new LedgerEntryDTO(3L, "Bob", "envoi", BigDecimal.TEN, false, LocalDateTime.of(2025, 3, 20, 10, 0))));
+        when(transactionRepository.findReceivedLedgerBetween(1L, from, to, to, Long.MAX_VALUE, Limit.of(4))).thenReturn(List.of(
+                new LedgerEntryDTO(5L, "Alice", "recu tardif", BigDecimal.ONE, true, LocalDateTime.of(2025, 3, 28, 9, 0)),
+                new LedgerEntryDTO(9L, "Alice", "recu ancien", BigDecimal.ONE, true, LocalDateTime.of(2025, 3, 2, 9, 0))));
+
+        // When
+        LedgerPage page = transactionService.getLedgerBetween(1L, from, to, null, null, 3);
+
+        // Then : l'ordre suit la date, pas l'id
+        assertEquals(List.of(5L, 3L, 9L), page.getEntries().stream().map(LedgerEntryDTO::getId).toList());
+        assertFalse(page.hasMore());
+        assertNull(page.getNextCursorDate());
+    }
+
+    @Tag("getLedgerBetween")
+    @Test
+    void getLedgerBetween_ShouldReturnDateAndIdCursor_WhenMoreRowsRemain() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 4, 1, 0, 0);
+        LocalDateTime beforeDate = LocalDateTime.of(2025, 3, 25, 0, 0);
+        LocalDateTime sameDay = LocalDateTime.of(2025, 3, 20, 10, 0);
+
+        when(transactionRepository.findSentLedgerBetween(1L, from, to, beforeDate, 40L, Limit.of(3))).thenReturn(List.of(
+                new LedgerEntryDTO(12L, "Bob", "envoi", BigDecimal.TEN, false, sameDay),
+                new LedgerEntryDTO(3L, "Bob", "envoi", BigDecimal.TEN, false, LocalDateTime.of(2025, 3, 2, 10, 0))));
+        when(transactionRepository.findReceivedLedgerBetween(1L, from, to, beforeDate, 40L, Limit.of(3))).thenReturn(List.of(
+                new LedgerEntryDTO(15L, "Alice", "recu", BigDecimal.ONE, true, sameDay)));
+
+        // When
+        LedgerPage page = transactionService.getLedgerBetween(1L, from, to, beforeDate, 40L, 2);
+
+        // Then : à date égale, l'id départage
+        assertEquals(List.of(15L, 12L), page.getEntries().stream().map(LedgerEntryDTO::getId).toList());
+        assertEquals(12L, page.getNextCursor());
+        assertEquals(sameDay, page.getNextCursorDate());
+    }
+
+    @Tag("getLedgerBetween")
+    @Test
+    void getLedgerBetween_ShouldThrow_WhenRangeIsInverted() {
+        LocalDateTime from = LocalDateTime.of(2025, 4, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getLedgerBetween(1L, from, to, null, null, 20));
+
+        assertEquals("La date de début doit précéder la date de fin", ex.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+
     // ==== Utils ====
     private User createUser(Long id, String email, String username) {
         User user = new User();
@@ -260,4 +574,9 @@ public class TransactionServiceImplTest {
         request.setDescription(description);
         return request;
     }
+
+    private long transferCount(String outcome) {
+        Timer timer = meterRegistry.find(TransactionServiceImpl.TRANSFER_TIMER).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
 }
@@ -0,0 +1,83 @@
+package com.paymybuddy.service;
+
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.DTO.UserProfileDTO;
+import com.paymybuddy.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserProfileCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserProfileCache userProfileCache;
+
+    private final UserProfileDTO alice = new UserProfileDTO(1L, "alice", "alice@email.com", AuthProvider.LOCAL);
+
+    @BeforeEach
+    void setUp() {
+        userProfileCache = new UserProfileCache(userRepository, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void findByEmail_ShouldHitDatabaseOnlyOnce() {
+        when(userRepository.findProfileByEmail("alice@email.com")).thenReturn(Optional.of(alice));
+
+        assertEquals(Optional.of(alice), userProfileCache.findByEmail("alice@email.com"));
+        assertEquals(Optional.of(alice), userProfileCache.findByEmail("alice@email.com"));
+
+        verify(userRepository, times(1)).findProfileByEmail("alice@email.com");
+    }
+
+    @Test
+    void lookupByOneKey_ShouldPopulateTheOtherKeys() {
+        when(userRepository.findProfileByEmail("alice@email.com")).thenReturn(Optional.of(alice));
+
+        userProfileCache.findByEmail("alice@email.com");
+
+        assertEquals(Optional.of(alice), userProfileCache.findById(1L));
+        assertEquals(Optional.of(alice), userProfileCache.findByUsername("alice"));
+        verify(userRepository, never()).findProfileById(any());
+        verify(userRepository, never()).findProfileByUsername(any());
+    }
+
+    @Test
+    void missingUser_ShouldNotBeCached() {
+        when(userRepository.findProfileByUsername("bob")).thenReturn(Optional.empty());
+
+        userProfileCache.findByUsername("bob");
+        userProfileCache.findByUsername("bob");
+
+        verify(userRepository, times(2)).findProfileByUsername("bob");
+    }
+
+    @Test
+    void invalidate_ShouldEvictEveryKeyOfTheUser() {
+        UserProfileDTO renamed = new UserProfileDTO(1L, "alice2", "alice2@email.com", AuthProvider.LOCAL);
+        when(userRepository.findProfileById(1L)).thenReturn(Optional.of(alice), Optional.of(renamed));
+        when(userRepository.findProfileByUsername("alice")).thenReturn(Optional.empty());
+
+        userProfileCache.findById(1L);
+        userProfileCache.invalidate(1L, "alice@email.com", "alice");
+
+        assertEquals(Optional.of(renamed), userProfileCache.findById(1L));
+        assertTrue(userProfileCache.findByUsername("alice").isEmpty());
+    }
+
+    @Test
+    void nullKey_ShouldNotQueryDatabase() {
+        assertTrue(userProfileCache.findByEmail(null).isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+}
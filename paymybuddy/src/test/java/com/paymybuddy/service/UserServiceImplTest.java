@@ -4,8 +4,12 @@ import com.paymybuddy.exception.EmailConflictException;
 import com.paymybuddy.exception.EmailNotFoundException;
 import com.paymybuddy.exception.UserNotFoundException;
 import com.paymybuddy.exception.UsernameConflictException;
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.model.DTO.ContactSuggestionDTO;
 import com.paymybuddy.model.DTO.RegisterRequest;
 import com.paymybuddy.model.DTO.UpdateUserRequest;
+import com.paymybuddy.model.DTO.UserProfileDTO;
 import com.paymybuddy.model.User;
 import com.paymybuddy.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +17,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.math.BigDecimal;
@@ -35,6 +41,12 @@ public class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @Mock
+    private ContactListCache contactListCache;
+
     @Captor
     private ArgumentCaptor<User> userCaptor;
 
@@ -52,7 +64,7 @@ public class UserServiceImplTest {
     public void testRegisterUser_WhenSaveUserSucceeds() {
         // Given
         when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.empty());
-        when(userRepository.findByUsername(request.getUserName())).thenReturn(Optional.empty());
+        when(userProfileCache.findByUsername(request.getUserName())).thenReturn(Optional.empty());
         when(passwordEncoder.encode(request.getPassword())).thenReturn("encodedPassword");
 
         // When
@@ -88,7 +100,7 @@ public class UserServiceImplTest {
     @Test
     public void testRegisterUser_ShouldThrowUsernameConflictException() {
         // Given
-        when(userRepository.findByUsername(request.getUserName())).thenReturn(Optional.of(new User()));
+        when(userProfileCache.findByUsername(request.getUserName())).thenReturn(Optional.of(profile(9L, request.getUserName())));
 
         //When
         UsernameConflictException ex = assertThrows(
@@ -103,45 +115,48 @@ public class UserServiceImplTest {
     }
 
     @Test
-    public void getListOfConnectionOfCurrentUserById_WhenUserExists() {
+    public void getContactsOfUser_ShouldReturnProjectionWithoutLoadingUser() {
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
-        user.setEmail("existing@email.com");
+        List<ContactDTO> contacts = List.of(new ContactDTO(2L, "conn1"), new ContactDTO(3L, "conn2"));
 
-        User connection1 = new User();
-        connection1.setId(2L);
-        connection1.setEmail("conn1@email.com");
+        when(contactListCache.get(userId)).thenReturn(contacts);
 
-        User connection2 = new User();
-        connection2.setId(3L);
-        connection2.setEmail("conn2@email.com");
+        List<ContactDTO> result = userService.getContactsOfUser(userId);
 
-        // Simuler la collection connections
-        List<User> connections = List.of(connection1, connection2);
-        user.setConnections(connections);
+        assertEquals(contacts, result);
+        verify(userRepository, never()).findById(any());
+    }
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+    @Test
+    public void getContactsOfUser_WhenUserIdIsNull() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> userService.getContactsOfUser(null));
 
-        List<User> resultConnections = userService.getListOfConnectionOfCurrentUserById(userId);
+        assertEquals("L'identifiant de l'utilisateur est requis", ex.getMessage());
+        verifyNoInteractions(userRepository);
+    }
 
-        assertNotNull(resultConnections);
-        assertEquals(2, resultConnections.size());
-        assertEquals("conn1@email.com", resultConnections.get(0).getEmail());
-        assertEquals("conn2@email.com", resultConnections.get(1).getEmail());
 
-        verify(userRepository).findById(userId);
+    @Test
+    public void getContactSuggestions_ShouldClampLimit() {
+        List<ContactSuggestionDTO> suggestions = List.of(new ContactSuggestionDTO(4L, "dave", 2));
+        when(userRepository.findContactSuggestions(1L, Limit.of(UserServiceImpl.MAX_CONTACT_QUERY_LIMIT))).thenReturn(suggestions);
+
+        assertEquals(suggestions, userService.getContactSuggestions(1L, 10_000));
     }
 
     @Test
-    public void getListOfConnectionOfCurrentUserById_WhenUserNotFound() {
-        Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+    public void getMutualContacts_ShouldDelegateWithLimit() {
+        List<ContactDTO> mutual = List.of(new ContactDTO(4L, "dave"));
+        when(userRepository.findMutualContacts(1L, 2L, Limit.of(5))).thenReturn(mutual);
 
-        UserNotFoundException ex = assertThrows(UserNotFoundException.class, () -> userService.getListOfConnectionOfCurrentUserById(userId));
+        assertEquals(mutual, userService.getMutualContacts(1L, 2L, 5));
+    }
 
-        assertEquals("Utilisateur introuvable avec l'id : 1", ex.getMessage());
-        verify(userRepository).findById(userId);
+    @Test
+    public void getUsersHavingAsContact_ShouldUseAtLeastOneRow() {
+        when(userRepository.findUsersHavingContact(1L, Limit.of(1))).thenReturn(List.of());
+
+        assertTrue(userService.getUsersHavingAsContact(1L, 0).isEmpty());
     }
 
 
@@ -184,12 +199,12 @@ public class UserServiceImplTest {
         user.setEmail("<EMAIL>");
         user.setPassword("password");
 
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(userProfileCache.findByEmail(email)).thenReturn(Optional.empty());
 
         UserNotFoundException ex = assertThrows(UserNotFoundException.class, () -> userService.addUserConnexion(user, email));
 
         assertEquals("L'utilisateur avec l'email " + email + " n'existe pas, veuillez vérifier.", ex.getMessage());
-        verify(userRepository, Mockito.never()).save(Mockito.any());
+        verify(userRepository, never()).addConnection(any(), any());
     }
 
     @Test
@@ -202,18 +217,13 @@ public class UserServiceImplTest {
         user.setEmail("test@example.com");
         user.setPassword("password");
 
-        User userToConnect = new User();
-        userToConnect.setId(3L);
-        userToConnect.setEmail(email);
-        userToConnect.setPassword("password");
-
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(userToConnect));
-        when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
+        when(userProfileCache.findByEmail(email)).thenReturn(Optional.of(profile(3L, "Patrick")));
+        when(userRepository.existsConnection(id, 3L)).thenReturn(false);
+        when(userRepository.addConnection(id, 3L)).thenReturn(0);
 
         UserNotFoundException ex = assertThrows(UserNotFoundException.class, () -> userService.addUserConnexion(user, email));
 
         assertEquals("L'utilisateur avec l'id " + user.getId() + " n'existe pas", ex.getMessage());
-        verify(userRepository, Mockito.never()).save(Mockito.any());
     }
 
     @Test
@@ -222,24 +232,34 @@ public class UserServiceImplTest {
         String username = "Patrick";
         Long id = 1L;
 
-        User userToConnect = new User();
-        userToConnect.setUsername(username);
-        userToConnect.setId(3L);
-        userToConnect.setEmail(email);
-        userToConnect.setPassword("password");
-
         User user = new User();
         user.setId(id);
         user.setEmail("test@example.com");
         user.setPassword("password");
-        user.setConnections(List.of(userToConnect));
 
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(userToConnect));
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userProfileCache.findByEmail(email)).thenReturn(Optional.of(profile(3L, username)));
+        when(userRepository.existsConnection(id, 3L)).thenReturn(true);
 
         EmailConflictException ex = assertThrows(EmailConflictException.class, () -> userService.addUserConnexion(user, email));
 
         assertEquals("Cette personne fait déjà partie de vos contacts : " + email + " (" + username + ")", ex.getMessage());
+        verify(userRepository, never()).addConnection(any(), any());
+    }
+
+    @Test
+    public void addUserConnexion_WhenConcurrentInsertHitsPrimaryKey() {
+        String email = "example@test.com";
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+
+        when(userProfileCache.findByEmail(email)).thenReturn(Optional.of(profile(3L, "Patrick")));
+        when(userRepository.existsConnection(1L, 3L)).thenReturn(false);
+        when(userRepository.addConnection(1L, 3L)).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        EmailConflictException ex = assertThrows(EmailConflictException.class, () -> userService.addUserConnexion(user, email));
+
+        assertEquals("Cette personne fait déjà partie de vos contacts : " + email + " (Patrick)", ex.getMessage());
     }
 
     @Test
@@ -248,23 +268,46 @@ public class UserServiceImplTest {
         User userConnected = new User();
         userConnected.setId(1L);
         userConnected.setEmail("test@example.com");
-        userConnected.setConnections(new ArrayList<>());
-
-        User userToConnect = new User();
-        userToConnect.setId(3L);
-        userToConnect.setEmail(email);
-        userToConnect.setConnections(new ArrayList<>());
 
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(userToConnect));
-        when(userRepository.findById(userConnected.getId())).thenReturn(Optional.of(userConnected));
+        when(userProfileCache.findByEmail(email)).thenReturn(Optional.of(profile(3L, "Patrick")));
+        when(userRepository.existsConnection(1L, 3L)).thenReturn(false);
+        when(userRepository.addConnection(1L, 3L)).thenReturn(1);
 
         userService.addUserConnexion(userConnected, email);
 
-        assertTrue(userConnected.getConnections().contains(userToConnect));
-        assertFalse(userToConnect.getConnections().contains(userConnected));
+        verify(userRepository, times(1)).addConnection(1L, 3L);
+        verify(contactListCache).invalidate(1L);
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    public void addSuggestedConnexion_ShouldReject_WhenIdIsNotASuggestion() {
+        User userConnected = new User();
+        userConnected.setId(1L);
+
+        when(userRepository.isContactSuggestion(1L, 9L)).thenReturn(false);
+
+        UserNotFoundException ex = assertThrows(UserNotFoundException.class, () -> userService.addSuggestedConnexion(userConnected, 9L));
+
+        assertEquals("Cet utilisateur ne fait pas partie de vos suggestions.", ex.getMessage());
+        verify(userRepository, never()).addConnection(any(), any());
+        verifyNoInteractions(contactListCache);
+    }
+
+    @Test
+    public void addSuggestedConnexion_WhenIdIsStillASuggestion() {
+        User userConnected = new User();
+        userConnected.setId(1L);
+
+        when(userRepository.isContactSuggestion(1L, 4L)).thenReturn(true);
+        when(userRepository.addConnection(1L, 4L)).thenReturn(1);
+
+        userService.addSuggestedConnexion(userConnected, 4L);
 
-        verify(userRepository, times(1)).save(userConnected);
-        verify(userRepository, times(0)).save(userToConnect);
+        verify(userRepository).addConnection(1L, 4L);
+        verify(contactListCache).invalidate(1L);
+        verifyNoInteractions(userProfileCache);
     }
 
     @Test
@@ -415,7 +458,7 @@ public class UserServiceImplTest {
         user.setPassword("password");
 
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.of(new User()));
+        when(userProfileCache.findByEmail(request.getEmail())).thenReturn(Optional.of(profile(9L, "other")));
 
         EmailConflictException ex = assertThrows(EmailConflictException.class, () -> userService.updateUser(request, user));
 
@@ -437,7 +480,7 @@ public class UserServiceImplTest {
         user.setPassword("password");
 
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(userRepository.findByUsername(request.getUsername())).thenReturn(Optional.of(new User()));
+        when(userProfileCache.findByUsername(request.getUsername())).thenReturn(Optional.of(profile(9L, request.getUsername())));
 
         UsernameConflictException ex = assertThrows(UsernameConflictException.class, () -> userService.updateUser(request, user));
 
@@ -523,10 +566,11 @@ public class UserServiceImplTest {
         existingUser.setPassword("encodedOldPassword");
 
         when(userRepository.findById(existingUser.getId())).thenReturn(Optional.of(existingUser));
-        when(userRepository.findByEmail(request.getEmail())).thenReturn(Optional.empty());
-        when(userRepository.findByUsername(request.getUsername())).thenReturn(Optional.empty());
+        when(userProfileCache.findByEmail(request.getEmail())).thenReturn(Optional.empty());
+        when(userProfileCache.findByUsername(request.getUsername())).thenReturn(Optional.empty());
         when(passwordEncoder.matches("newPassword123", "encodedOldPassword")).thenReturn(false);
         when(passwordEncoder.encode("newPassword123")).thenReturn("encodedNewPassword");
+        when(userRepository.findIdsOfUsersHavingContact(1L)).thenReturn(List.of(2L, 3L));
 
         userService.updateUser(request, existingUser);
 
@@ -535,6 +579,10 @@ public class UserServiceImplTest {
         assertEquals("encodedNewPassword", existingUser.getPassword());
 
         verify(userRepository, times(1)).save(existingUser);
+        // Les anciennes clés doivent disparaître du cache des profils
+        verify(userProfileCache).invalidate(1L, "old@example.com", "oldUsername");
+        // Seules les listes qui affichent ce nom sont retirées du cache
+        verify(contactListCache).invalidateAll(List.of(2L, 3L));
     }
 
     @Test
@@ -546,10 +594,23 @@ public class UserServiceImplTest {
         user.setPassword("password");
         user.setAccount(new BigDecimal(0));
 
+        when(userRepository.creditAccount(id, new BigDecimal("100.00"))).thenReturn(1);
+
         userService.depositOnAccount(new BigDecimal("100.00"), user);
 
-        assertEquals(new BigDecimal("100.00"), user.getAccount());
-        verify(userRepository, times(1)).updateAccount(user.getId(), new BigDecimal("100.00"));
+        verify(userRepository, times(1)).creditAccount(user.getId(), new BigDecimal("100.00"));
+    }
+
+    @Test
+    void depositOnAccount_WhenUserDoesntExistInDatabase_ShouldThrow() {
+        User user = new User();
+        user.setId(1L);
+
+        when(userRepository.creditAccount(1L, new BigDecimal("10.00"))).thenReturn(0);
+
+        UserNotFoundException ex = assertThrows(UserNotFoundException.class, () -> userService.depositOnAccount(BigDecimal.TEN, user));
+
+        assertEquals("L'utilisateur avec l'id 1 n'existe pas", ex.getMessage());
     }
 
     @Test
@@ -562,4 +623,8 @@ public class UserServiceImplTest {
 
         assertThrows(IllegalArgumentException.class, () -> userService.depositOnAccount(new BigDecimal("-10"), user));
     }
+
+    private static UserProfileDTO profile(Long id, String username) {
+        return new UserProfileDTO(id, username, username + "@email.com", AuthProvider.LOCAL);
+    }
 }
@@ -0,0 +1,111 @@
+package com.paymybuddy.serviceIT;
+
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.model.DTO.ContactSuggestionDTO;
+import com.paymybuddy.model.User;
+import com.paymybuddy.repository.UserRepository;
+import com.paymybuddy.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Graphe utilisé par les tests :
+ * alice → bob, carol ; bob → dave, erin, alice ; carol → dave ; frank → alice
+ */
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test"
+})
+public class ContactGraphIT {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User alice;
+    private User bob;
+    private User carol;
+    private User frank;
+
+    @BeforeEach
+    void setup() {
+        userRepository.deleteAll();
+
+        alice = createUser("alice");
+        bob = createUser("bob");
+        carol = createUser("carol");
+        User dave = createUser("dave");
+        User erin = createUser("erin");
+        frank = createUser("frank");
+
+        connect(alice, bob, carol);
+        connect(bob, dave, erin, alice);
+        connect(carol, dave);
+        connect(frank, alice);
+    }
+
+    @Test
+    void getUsersHavingAsContact_ShouldUseReverseDirection() {
+        List<ContactDTO> result = userService.getUsersHavingAsContact(alice.getId(), 10);
+
+        assertEquals(List.of("bob", "frank"), result.stream().map(ContactDTO::getUsername).toList());
+    }
+
+    @Test
+    void findIdsOfUsersHavingContact_ShouldReturnAllOwnersOfTheContact() {
+        List<Long> result = userRepository.findIdsOfUsersHavingContact(alice.getId());
+
+        assertEquals(new HashSet<>(List.of(bob.getId(), frank.getId())), new HashSet<>(result));
+    }
+
+    @Test
+    void getMutualContacts_ShouldReturnContactsSharedByBothUsers() {
+        List<ContactDTO> result = userService.getMutualContacts(bob.getId(), carol.getId(), 10);
+
+        assertEquals(List.of("dave"), result.stream().map(ContactDTO::getUsername).toList());
+    }
+
+    @Test
+    void getContactSuggestions_ShouldRankFriendsOfFriendsByMutualContacts() {
+        List<ContactSuggestionDTO> result = userService.getContactSuggestions(alice.getId(), 10);
+
+        // alice et ses contacts actuels sont exclus ; dave est connu de bob et carol
+        assertEquals(List.of("dave", "erin"), result.stream().map(ContactSuggestionDTO::getUsername).toList());
+        assertEquals(2, result.getFirst().getMutualContacts());
+        assertEquals(1, result.get(1).getMutualContacts());
+    }
+
+    @Test
+    void getContactSuggestions_ShouldHonourLimit() {
+        assertEquals(1, userService.getContactSuggestions(alice.getId(), 1).size());
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setEmail(username + "@email.com");
+        user.setUsername(username);
+        user.setAccount(new BigDecimal(100));
+        user.setProvider(AuthProvider.LOCAL);
+        return userRepository.save(user);
+    }
+
+    private void connect(User user, User... contacts) {
+        user.setConnections(new HashSet<>(List.of(contacts)));
+        userRepository.save(user);
+    }
+}
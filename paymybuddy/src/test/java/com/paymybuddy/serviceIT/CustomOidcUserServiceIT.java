@@ -0,0 +1,142 @@
+package com.paymybuddy.serviceIT;
+
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.User;
+import com.paymybuddy.repository.UserRepository;
+import com.paymybuddy.security.CustomOidcUser;
+import com.paymybuddy.security.CustomOidcUserService;
+import com.paymybuddy.support.SqlStatementCounter;
+import com.paymybuddy.support.SqlStatementCounter.Kind;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.oidc.IdTokenClaimNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Connexion OIDC sans appel réseau : la registration de test n'a pas d'endpoint userinfo,
+ * l'utilisateur est construit à partir des claims de l'ID token.
+ */
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test"
+})
+public class CustomOidcUserServiceIT {
+
+    @Autowired
+    private CustomOidcUserService customOidcUserService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void returningUserLoginShouldCostOneSelectAndNoWrite() {
+        // Given
+        User user = new User();
+        user.setEmail("returning@gmail.com");
+        user.setUsername("Returning User");
+        user.setProvider(AuthProvider.GOOGLE);
+        userRepository.save(user);
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+
+        // When
+        CustomOidcUser oidcUser = (CustomOidcUser) customOidcUserService.loadUser(request("returning@gmail.com", "Returning User"));
+        entityManager.flush();
+
+        // Then
+        assertEquals("Returning User", oidcUser.getUser().getUsername());
+        String executed = "Requêtes exécutées :\n" + String.join("\n", SqlStatementCounter.statements());
+        assertAll(
+                () -> assertTrue(SqlStatementCounter.count(Kind.SELECT) <= 1, "SELECT au-delà de 1. " + executed),
+                () -> assertEquals(0, SqlStatementCounter.count(Kind.INSERT), executed),
+                () -> assertEquals(0, SqlStatementCounter.count(Kind.UPDATE), executed)
+        );
+    }
+
+    @Test
+    void firstLoginShouldCreateUserWithProviderName() {
+        // When
+        CustomOidcUser oidcUser = (CustomOidcUser) customOidcUserService.loadUser(request("new@gmail.com", "New User"));
+
+        // Then
+        User created = userRepository.findByEmail("new@gmail.com").orElseThrow();
+        assertEquals(oidcUser.getUser().getId(), created.getId());
+        assertEquals("New User", created.getUsername());
+        assertEquals(AuthProvider.GOOGLE, created.getProvider());
+    }
+
+    @Test
+    void firstLoginShouldSuffixUsername_WhenNameIsTaken() {
+        // Given
+        User existing = new User();
+        existing.setEmail("other@gmail.com");
+        existing.setUsername("Jean Martin");
+        existing.setProvider(AuthProvider.GOOGLE);
+        userRepository.save(existing);
+
+        // When
+        CustomOidcUser oidcUser = (CustomOidcUser) customOidcUserService.loadUser(request("jean@gmail.com", "Jean Martin"));
+
+        // Then
+        assertEquals("Jean Martin1", oidcUser.getUser().getUsername());
+    }
+
+    @Test
+    void loginShouldBeRejected_WhenLocalAccountExists() {
+        // Given
+        User local = new User();
+        local.setEmail("local@gmail.com");
+        local.setUsername("Local");
+        local.setPassword("hash");
+        local.setProvider(AuthProvider.LOCAL);
+        userRepository.save(local);
+
+        // When & Then
+        assertThrows(OAuth2AuthenticationException.class,
+                () -> customOidcUserService.loadUser(request("local@gmail.com", "Local")));
+    }
+
+    private static OidcUserRequest request(String email, String name) {
+        Instant now = Instant.now();
+        ClientRegistration registration = ClientRegistration.withRegistrationId("google")
+                .clientId("test")
+                .clientSecret("test")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .authorizationUri("https://accounts.example.com/auth")
+                .tokenUri("https://accounts.example.com/token")
+                .scope("openid", "email", "profile")
+                .userNameAttributeName(IdTokenClaimNames.SUB)
+                .build();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "access-token",
+                now, now.plusSeconds(60), Set.of("openid", "email", "profile"));
+        OidcIdToken idToken = OidcIdToken.withTokenValue("id-token")
+                .subject(email)
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .claim("email", email)
+                .claim("name", name)
+                .build();
+        return new OidcUserRequest(registration, accessToken, idToken);
+    }
+}
@@ -0,0 +1,219 @@
+package com.paymybuddy.serviceIT;
+
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.DTO.ContactDTO;
+import com.paymybuddy.model.User;
+import com.paymybuddy.repository.UserRepository;
+import com.paymybuddy.security.CustomOidcUser;
+import com.paymybuddy.security.CustomOidcUserService;
+import com.paymybuddy.security.UserDetailsServiceImpl;
+import com.paymybuddy.service.ContactListCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.oidc.IdTokenClaimNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vérifie que les transactions en lecture seule partent vers le réplica et les autres vers la base principale.
+ * Bases H2 dédiées pour ne pas supprimer le schéma partagé par les autres tests.
+ *
+ * <p>
+ * Le schéma JPA n'est créé que sur la base principale : le réplica de test est vide, comme un réplica en retard
+ * qui n'aurait encore reçu aucune écriture. Toute lecture routée à tort vers lui échoue.
+ * </p>
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test",
+        "spring.datasource.url=jdbc:h2:mem:primarytest;DB_CLOSE_DELAY=-1",
+        "paymybuddy.datasource.replica.url=jdbc:h2:mem:replicatest;DB_CLOSE_DELAY=-1",
+        "paymybuddy.datasource.replica.username=sa",
+        "paymybuddy.datasource.replica.password="
+})
+public class ReplicaRoutingIT {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private CustomOidcUserService customOidcUserService;
+
+    @Autowired
+    private ContactListCache contactListCache;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM user_connections");
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void readOnlyTransactionShouldUseReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        String database = readOnly.execute(status -> currentDatabase());
+
+        assertEquals("replicatest", database);
+    }
+
+    @Test
+    void readWriteTransactionShouldUsePrimary() {
+        String database = new TransactionTemplate(transactionManager).execute(status -> currentDatabase());
+
+        assertEquals("primarytest", database);
+    }
+
+    @Test
+    void bothPoolsShouldPublishMetrics() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.execute(status -> currentDatabase());
+        new TransactionTemplate(transactionManager).execute(status -> currentDatabase());
+
+        for (String pool : List.of("primary", "replica")) {
+            assertNotNull(meterRegistry.find("hikaricp.connections.pending").tag("pool", pool).gauge(), pool);
+            assertNotNull(meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer(), pool);
+        }
+    }
+
+    @Test
+    void inheritedCrudReadOutsideTransactionShouldHitReplica() {
+        // Given : l'utilisateur n'existe que sur la base principale
+        Long id = userRepository.save(localUser("routing@test.com")).getId();
+
+        // When & Then : les méthodes héritées de SimpleJpaRepository ouvrent une transaction en lecture seule
+        assertThrows(DataAccessException.class, () -> userRepository.findById(id));
+    }
+
+    @Test
+    void queryMethodOutsideTransactionShouldUsePrimary() {
+        // Given
+        userRepository.save(localUser("query@test.com"));
+
+        // When & Then : une méthode de requête déclarée sur l'interface n'ouvre aucune transaction
+        assertTrue(userRepository.findByEmail("query@test.com").isPresent());
+    }
+
+    @Test
+    void loginLookupShouldReadPrimary_WhenReplicaLags() {
+        // Given
+        userRepository.save(localUser("fresh@test.com"));
+
+        // When
+        UserDetails details = userDetailsService.loadUserByUsername("fresh@test.com");
+
+        // Then
+        assertEquals("fresh@test.com", details.getUsername());
+    }
+
+    @Test
+    void oidcLoginShouldFindAndCreateUsersOnPrimary_WhenReplicaLags() {
+        // Given
+        User existing = new User();
+        existing.setEmail("existing@gmail.com");
+        existing.setUsername("Existing");
+        existing.setProvider(AuthProvider.GOOGLE);
+        existing = userRepository.save(existing);
+
+        // When
+        CustomOidcUser returning = (CustomOidcUser) customOidcUserService.loadUser(oidcRequest("existing@gmail.com", "Existing"));
+        CustomOidcUser created = (CustomOidcUser) customOidcUserService.loadUser(oidcRequest("new@gmail.com", "Existing"));
+
+        // Then : le compte existant est retrouvé, et le nouveau nom évite celui déjà pris sur la base principale
+        assertEquals(existing.getId(), returning.getUser().getId());
+        assertEquals("Existing1", created.getUser().getUsername());
+        assertEquals(2L, (long) new TransactionTemplate(transactionManager).execute(status -> userRepository.count()));
+    }
+
+    @Test
+    void contactListCacheMissShouldLoadFromPrimary_InsideReadOnlyTransaction() {
+        // Given : le contact vient d'être ajouté sur la base principale
+        User contact = userRepository.save(localUser("contact@test.com"));
+        User owner = localUser("owner@test.com");
+        owner.setConnections(new HashSet<>(Set.of(contact)));
+        Long ownerId = userRepository.save(owner).getId();
+        contactListCache.invalidate(ownerId);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // When : lecture depuis une page servie en lecture seule, donc sur le réplica
+        List<String> contacts = readOnly.execute(status -> contactListCache.get(ownerId).stream()
+                .map(ContactDTO::getUsername)
+                .toList());
+
+        // Then
+        assertEquals(List.of("contact@test.com"), contacts);
+    }
+
+    private static User localUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setUsername(email);
+        user.setPassword("{noop}password");
+        user.setProvider(AuthProvider.LOCAL);
+        return user;
+    }
+
+    private static OidcUserRequest oidcRequest(String email, String name) {
+        Instant now = Instant.now();
+        ClientRegistration registration = ClientRegistration.withRegistrationId("google")
+                .clientId("test")
+                .clientSecret("test")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .authorizationUri("https://accounts.example.com/auth")
+                .tokenUri("https://accounts.example.com/token")
+                .scope("openid", "email", "profile")
+                .userNameAttributeName(IdTokenClaimNames.SUB)
+                .build();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "access-token",
+                now, now.plusSeconds(60), Set.of("openid", "email", "profile"));
+        OidcIdToken idToken = OidcIdToken.withTokenValue("id-token")
+                .subject(email)
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .claim("email", email)
+                .claim("name", name)
+                .build();
+        return new OidcUserRequest(registration, accessToken, idToken);
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class).toLowerCase();
+    }
+}
@@ -0,0 +1,138 @@
+package com.paymybuddy.serviceIT;
+
+import com.paymybuddy.exception.TransactionBusinessException;
+import com.paymybuddy.model.AuthProvider;
+import com.paymybuddy.model.DTO.TransactionRequest;
+import com.paymybuddy.model.Transaction;
+import com.paymybuddy.model.User;
+import com.paymybuddy.repository.TransactionRepository;
+import com.paymybuddy.repository.UserRepository;
+import com.paymybuddy.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Virements croisés concurrents (A→B pendant que B→A) entre un petit groupe d'utilisateurs.
+ * Pas de @Transactional ici : chaque virement doit s'exécuter dans sa propre transaction, sur son propre thread.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test"
+})
+public class TransactionServiceConcurrencyIT {
+
+    private static final int USER_COUNT = 4;
+    private static final int TRANSFER_COUNT = 400;
+    private static final int THREAD_COUNT = 8;
+    private static final BigDecimal INITIAL_ACCOUNT = new BigDecimal("1000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+
+        for (int i = 0; i < USER_COUNT; i++) {
+            User user = new User();
+            user.setEmail("concurrent" + i + "@test.com");
+            user.setUsername("Concurrent" + i);
+            user.setAccount(INITIAL_ACCOUNT);
+            user.setProvider(AuthProvider.LOCAL);
+            users.add(userRepository.save(user));
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        transactionRepository.deleteAll();
+        userRepository.deleteAll();
+        users.clear();
+    }
+
+    @Test
+    void crossingTransfersShouldKeepTotalMoneyConstant() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < TRANSFER_COUNT; i++) {
+            // Paires croisées : i pair → A paie B, i impair → B paie A
+            int pair = (i / 2) % USER_COUNT;
+            User first = users.get(pair);
+            User second = users.get((pair + 1) % USER_COUNT);
+            User sender = i % 2 == 0 ? first : second;
+            User receiver = i % 2 == 0 ? second : first;
+            BigDecimal amount = BigDecimal.valueOf(1 + (i % 7));
+
+            futures.add(executor.submit(() -> {
+                start.await();
+                TransactionRequest request = new TransactionRequest();
+                request.setUserReceiverId(receiver.getId());
+                request.setAmount(amount);
+                request.setDescription("Concurrent");
+                try {
+                    transactionService.saveNewTransaction(request, sender);
+                } catch (TransactionBusinessException ex) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        List<User> reloaded = userRepository.findAll();
+        BigDecimal total = reloaded.stream()
+                .map(User::getAccount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertEquals(0, INITIAL_ACCOUNT.multiply(BigDecimal.valueOf(USER_COUNT)).compareTo(total),
+                "La somme des soldes doit rester constante, trouvé : " + total);
+
+        // Chaque solde correspond exactement aux transactions enregistrées : aucune mise à jour perdue
+        List<Transaction> transactions = transactionRepository.findAll();
+        assertEquals(TRANSFER_COUNT - rejected.get(), transactions.size());
+        for (User user : reloaded) {
+            BigDecimal expected = INITIAL_ACCOUNT;
+            for (Transaction t : transactions) {
+                if (t.getSender().getId().equals(user.getId())) {
+                    expected = expected.subtract(t.getAmount());
+                }
+                if (t.getReceiver().getId().equals(user.getId())) {
+                    expected = expected.add(t.getAmount());
+                }
+            }
+            assertEquals(0, expected.compareTo(user.getAccount()), "Solde incohérent pour " + user.getUsername());
+            assertTrue(user.getAccount().signum() >= 0);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.paymybuddy.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compte les requêtes SQL préparées par Hibernate, par type (SELECT, INSERT, UPDATE, DELETE).
+ *
+ * <p>
+ * Branché sur toutes les usines de sessions des tests via
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} : Hibernate instancie
+ * lui-même la classe, les compteurs sont donc statiques. Les requêtes natives ({@code @Query(nativeQuery = true)})
+ * passent aussi par l'inspecteur ; seules les requêtes JDBC hors Hibernate ne sont pas vues.
+ * </p>
+ *
+ * <p>
+ * Usage : {@link #reset()} juste avant l'action mesurée, puis {@link #count(Kind)} ;
+ * {@link #statements()} restitue les requêtes exécutées pour les messages d'échec.
+ * </p>
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    public enum Kind { SELECT, INSERT, UPDATE, DELETE, OTHER }
+
+    private static final Map<Kind, Integer> COUNTS = new EnumMap<>(Kind.class);
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        Kind kind = kindOf(sql);
+        synchronized (COUNTS) {
+            COUNTS.merge(kind, 1, Integer::sum);
+            STATEMENTS.add(sql);
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        synchronized (COUNTS) {
+            COUNTS.clear();
+            STATEMENTS.clear();
+        }
+    }
+
+    public static int count(Kind kind) {
+        synchronized (COUNTS) {
+            return COUNTS.getOrDefault(kind, 0);
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (COUNTS) {
+            return Collections.unmodifiableList(new ArrayList<>(STATEMENTS));
+        }
+    }
+
+    static Kind kindOf(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        // Les commentaires Hibernate (/* ... */) précèdent parfois la requête
+        while (statement.startsWith("/*") && statement.contains("*/")) {
+            statement = statement.substring(statement.indexOf("*/") + 2).stripLeading();
+        }
+
+        if (statement.startsWith("select") || statement.startsWith("with")) {
+            return Kind.SELECT;
+        }
+        if (statement.startsWith("insert")) {
+            return Kind.INSERT;
+        }
+        if (statement.startsWith("update")) {
+            return Kind.UPDATE;
+        }
+        if (statement.startsWith("delete")) {
+            return Kind.DELETE;
+        }
+        return Kind.OTHER;
+    }
+}